@@ -15,6 +15,11 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Optional direct transport to a server-side GTM container, e.g.
+        // "https://sgtm.example.com/g/collect" and "G-XXXXXXXXXX". Disabled when empty.
+        buildConfigField("String", "SGTM_COLLECT_URL", "\"\"")
+        buildConfigField("String", "GA4_MEASUREMENT_ID", "\"\"")
     }
 
     buildTypes {
@@ -32,6 +37,13 @@ android {
     }
     buildFeatures {
         viewBinding = true
+        buildConfig = true
+    }
+    testOptions {
+        unitTests {
+            // Robolectric tests run against the merged manifest and resources.
+            isIncludeAndroidResources = true
+        }
     }
 }
 
@@ -42,7 +54,9 @@ dependencies {
     implementation(libs.constraintlayout)
     implementation(libs.navigation.fragment)
     implementation(libs.navigation.ui)
+    implementation(libs.recyclerview)
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
     implementation(platform("com.google.firebase:firebase-bom:33.7.0"))
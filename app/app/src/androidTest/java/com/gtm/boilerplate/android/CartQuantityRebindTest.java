@@ -0,0 +1,230 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static androidx.test.espresso.Espresso.onIdle;
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.action.ViewActions.click;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.FrameMetrics;
+import android.view.Window;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Taps the +/- buttons of the cart rows and checks that each tap updates only the
+ * quantity of the tapped row, without inflating or fully rebinding any row. Also
+ * reports the duration of the frames drawn for the taps, from the window's frame metrics.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CartQuantityRebindTest {
+    private static final int LINE_COUNT = 3;
+    private static final long TIMEOUT_SECONDS = 5;
+    private static final int FRAME_TAPS = 50;
+
+    private ActivityScenario<MainActivity> scenario;
+    private final List<String> changes = new ArrayList<>();
+    private CountDownLatch changed;
+
+    /**
+     * Records every change the adapter announces to its RecyclerView.
+     */
+    private final RecyclerView.AdapterDataObserver observer = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            record("all");
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            record("changed " + positionStart + "+" + itemCount + (payload != null ? " payload" : ""));
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            record("inserted " + positionStart + "+" + itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            record("removed " + positionStart + "+" + itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            record("moved " + fromPosition + "->" + toPosition);
+        }
+
+        private void record(String change) {
+            changes.add(change);
+            changed.countDown();
+        }
+    };
+
+    @Before
+    public void setUp() {
+        Cart cart = Cart.getInstance();
+        cart.clearCart();
+        for (int i = 0; i < LINE_COUNT; i++) {
+            cart.addItem(new Product("rebind-" + i, "Product " + i, "Test", 10 + i, R.drawable.tshirt, "sku-" + i), 2);
+        }
+        scenario = ActivityScenario.launch(MainActivity.class);
+        onView(withId(R.id.cart_icon)).perform(click());
+        scenario.onActivity(activity -> getRecyclerView(activity).getAdapter().registerAdapterDataObserver(observer));
+    }
+
+    @After
+    public void tearDown() {
+        scenario.close();
+        Cart.getInstance().clearCart();
+    }
+
+    @Test
+    public void quantityChangesRebindOnlyTheTappedRow() throws Exception {
+        int inflationCount = CartLineAdapter.getInflationCount();
+        List<RecyclerView.ViewHolder> holders = getViewHolders();
+
+        int[] positions = {2, 0, 2, 1, 0};
+        int[] deltas = {1, 1, -1, -1, 1};
+        for (int i = 0; i < positions.length; i++) {
+            int position = positions[i];
+            int quantity = Cart.getInstance().getLines().get(position).getQuantity() + deltas[i];
+            changes.clear();
+            changed = new CountDownLatch(1);
+
+            tap(position, deltas[i] > 0 ? R.id.increase_button : R.id.decrease_button);
+            assertTrue("No change was submitted", changed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            onIdle();
+
+            scenario.onActivity(activity -> assertEquals("[changed " + position + "+1 payload]", changes.toString()));
+            assertEquals("Rows inflated", inflationCount, CartLineAdapter.getInflationCount());
+            List<RecyclerView.ViewHolder> current = getViewHolders();
+            for (int row = 0; row < LINE_COUNT; row++) {
+                assertSame("Holder of row " + row, holders.get(row), current.get(row));
+            }
+            TextView quantityTextView = current.get(position).itemView.findViewById(R.id.quantity_textview);
+            assertEquals(String.valueOf(quantity), quantityTextView.getText().toString());
+        }
+    }
+
+    /**
+     * Reports the median, 90th percentile and longest frame times while the quantity of a
+     * row changes, as instrumentation status. Frame times vary too much between devices to
+     * assert on; only that frames were measured is checked.
+     */
+    @Test
+    public void reportsFrameTimesOfQuantityChanges() throws Exception {
+        List<Long> frameNanos = Collections.synchronizedList(new ArrayList<>());
+        HandlerThread metricsThread = new HandlerThread("frame-metrics");
+        metricsThread.start();
+        Window.OnFrameMetricsAvailableListener listener = (window, frameMetrics, dropCount) ->
+                frameNanos.add(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+        scenario.onActivity(activity -> activity.getWindow()
+                .addOnFrameMetricsAvailableListener(listener, new Handler(metricsThread.getLooper())));
+        try {
+            for (int i = 0; i < FRAME_TAPS; i++) {
+                changed = new CountDownLatch(1);
+                tap(1, i % 2 == 0 ? R.id.increase_button : R.id.decrease_button);
+                assertTrue("No change was submitted", changed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                onIdle();
+            }
+            // Frame metrics are delivered shortly after the frames.
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+            while (frameNanos.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            scenario.onActivity(activity -> activity.getWindow().removeOnFrameMetricsAvailableListener(listener));
+            metricsThread.quitSafely();
+        }
+
+        List<Long> sorted;
+        synchronized (frameNanos) {
+            assertFalse("No frame was measured", frameNanos.isEmpty());
+            sorted = new ArrayList<>(frameNanos);
+        }
+        Collections.sort(sorted);
+        Bundle results = new Bundle();
+        results.putInt("cart_quantity_frames", sorted.size());
+        results.putDouble("cart_quantity_frame_p50_ms", percentile(sorted, 50) / 1e6);
+        results.putDouble("cart_quantity_frame_p90_ms", percentile(sorted, 90) / 1e6);
+        results.putDouble("cart_quantity_frame_max_ms", sorted.get(sorted.size() - 1) / 1e6);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        return sorted.get((sorted.size() - 1) * percent / 100);
+    }
+
+    /**
+     * Clicks a button of a row, as the user would.
+     *
+     * @param position The adapter position of the row.
+     * @param buttonId The ID of the +/- button.
+     */
+    private void tap(int position, int buttonId) {
+        scenario.onActivity(activity -> getRecyclerView(activity)
+                .findViewHolderForAdapterPosition(position).itemView.findViewById(buttonId).performClick());
+    }
+
+    /**
+     * @return The view holders of the rows, by adapter position.
+     */
+    private List<RecyclerView.ViewHolder> getViewHolders() {
+        AtomicReference<List<RecyclerView.ViewHolder>> holders = new AtomicReference<>();
+        scenario.onActivity(activity -> {
+            RecyclerView recyclerView = getRecyclerView(activity);
+            List<RecyclerView.ViewHolder> rows = new ArrayList<>();
+            for (int position = 0; position < LINE_COUNT; position++) {
+                RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(position);
+                assertNotNull("Row " + position + " is not laid out", holder);
+                rows.add(holder);
+            }
+            holders.set(rows);
+        });
+        return holders.get();
+    }
+
+    private static RecyclerView getRecyclerView(MainActivity activity) {
+        return activity.findViewById(R.id.cart_items_recyclerview);
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.action.ViewActions.click;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.lifecycle.ActivityLifecycleMonitorRegistry;
+import androidx.test.runner.lifecycle.Stage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loops between the product list and the cart through the toolbar, and checks that
+ * neither fragments nor heap accumulate across the round trips.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NavigationMemoryTest {
+    private static final int WARM_UP_ROUND_TRIPS = 10;
+    private static final int ROUND_TRIPS = 100;
+    // Over all the round trips; leaking one screen per round trip exceeds it by far.
+    private static final long MAX_HEAP_GROWTH_BYTES = 2 * 1024 * 1024;
+
+    private ActivityScenario<MainActivity> scenario;
+
+    @Before
+    public void setUp() {
+        scenario = ActivityScenario.launch(MainActivity.class);
+    }
+
+    @After
+    public void tearDown() {
+        scenario.close();
+    }
+
+    @Test
+    public void roundTripsKeepFragmentsAndHeapFlat() throws Exception {
+        // Fill the image cache and the product list before measuring.
+        for (int i = 0; i < WARM_UP_ROUND_TRIPS; i++) {
+            openCart();
+            goHome();
+        }
+        openCart();
+        int cartFragmentCount = getFragmentCount();
+        int cartBackStackDepth = getBackStackDepth();
+        goHome();
+        int homeFragmentCount = getFragmentCount();
+        int homeBackStackDepth = getBackStackDepth();
+        long usedHeap = usedHeapAfterGc();
+
+        for (int i = 0; i < ROUND_TRIPS; i++) {
+            openCart();
+            assertEquals("Fragments hosted on the cart", cartFragmentCount, getFragmentCount());
+            assertEquals("Back stack depth on the cart", cartBackStackDepth, getBackStackDepth());
+            goHome();
+            assertEquals("Fragments hosted on the product list", homeFragmentCount, getFragmentCount());
+            assertEquals("Back stack depth on the product list", homeBackStackDepth, getBackStackDepth());
+        }
+
+        assertEquals("Resumed activities", 1, getResumedActivityCount());
+        long growth = usedHeapAfterGc() - usedHeap;
+        assertTrue("Heap grew by " + growth / ROUND_TRIPS + " bytes per round trip",
+                growth < MAX_HEAP_GROWTH_BYTES);
+    }
+
+    private static void openCart() {
+        onView(withId(R.id.cart_icon)).perform(click());
+    }
+
+    private static void goHome() {
+        onView(withId(R.id.home_text)).perform(click());
+    }
+
+    /**
+     * @return The number of fragments added to the navigation host.
+     */
+    private int getFragmentCount() {
+        AtomicInteger count = new AtomicInteger();
+        scenario.onActivity(activity -> count.set(getNavHostFragmentManager(activity).getFragments().size()));
+        return count.get();
+    }
+
+    private int getBackStackDepth() {
+        AtomicInteger depth = new AtomicInteger();
+        scenario.onActivity(activity -> depth.set(getNavHostFragmentManager(activity).getBackStackEntryCount()));
+        return depth.get();
+    }
+
+    private static FragmentManager getNavHostFragmentManager(MainActivity activity) {
+        Fragment navHostFragment = activity.getSupportFragmentManager().findFragmentById(R.id.nav_host_fragment);
+        return navHostFragment.getChildFragmentManager();
+    }
+
+    private static int getResumedActivityCount() {
+        AtomicInteger count = new AtomicInteger();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> count.set(
+                ActivityLifecycleMonitorRegistry.getInstance().getActivitiesInStage(Stage.RESUMED).size()));
+        return count.get();
+    }
+
+    /**
+     * @return The bytes of Java heap in use once unreachable objects were collected.
+     */
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            System.runFinalization();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
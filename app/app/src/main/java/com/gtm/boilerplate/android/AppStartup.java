@@ -0,0 +1,338 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Orchestrates the initialization of the app's components. Each component declares its
+ * dependencies and when it should be created:
+ * <ul>
+ *     <li>{@link Mode#EAGER} on the main thread in {@code Application.onCreate}, for the
+ *     few things that must exist before the first activity;</li>
+ *     <li>{@link Mode#AFTER_FIRST_DRAW} on a background thread once the first frame is drawn;</li>
+ *     <li>{@link Mode#LAZY} on first use.</li>
+ * </ul>
+ * Whatever its mode, a component is created on the thread that first needs it, after
+ * its dependencies, and the time each creation took is recorded for the debug bottom sheet.
+ */
+public class AppStartup {
+    private static final String TAG = "AppStartup";
+
+    /**
+     * When a component is created if nothing needs it earlier.
+     */
+    public enum Mode {
+        EAGER, AFTER_FIRST_DRAW, LAZY
+    }
+
+    /**
+     * Creates the value of a component.
+     */
+    public interface Initializer<T> {
+        T create() throws Exception;
+    }
+
+    /**
+     * How long the creation of one component took.
+     */
+    public static class Timing {
+        private final String name;
+        private final Mode mode;
+        private final String threadName;
+        private final long startMillis;
+        private final long durationMicros;
+
+        Timing(String name, Mode mode, String threadName, long startMillis, long durationMicros) {
+            this.name = name;
+            this.mode = mode;
+            this.threadName = threadName;
+            this.startMillis = startMillis;
+            this.durationMicros = durationMicros;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * @return When the creation started, in milliseconds since the process started.
+         */
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public long getDurationMicros() {
+            return durationMicros;
+        }
+    }
+
+    /**
+     * A component whose value is created at most once, after its dependencies.
+     */
+    public class Component<T> {
+        private final String name;
+        private final Mode mode;
+        private final Initializer<T> initializer;
+        private final Component<?>[] dependencies;
+        private volatile boolean initialized;
+        private T value;
+
+        private Component(String name, Mode mode, Initializer<T> initializer, Component<?>[] dependencies) {
+            this.name = name;
+            this.mode = mode;
+            this.initializer = initializer;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * Returns the value, creating it and its dependencies on this thread if needed.
+         * Blocks while another thread is creating it.
+         *
+         * @return The value, or null if its creation failed.
+         */
+        public T get() {
+            if (!initialized) {
+                synchronized (this) {
+                    if (!initialized) {
+                        for (Component<?> dependency : dependencies) {
+                            dependency.get();
+                        }
+                        long startUptimeMillis = SystemClock.uptimeMillis();
+                        long startNanos = System.nanoTime();
+                        try {
+                            value = initializer.create();
+                        } catch (Exception e) {
+                            // Components are optional to the app: report the failure as a missing value.
+                            Log.e(TAG, "Unable to create " + name, e);
+                            value = null;
+                        }
+                        recordTiming(this, startUptimeMillis, System.nanoTime() - startNanos);
+                        initialized = true;
+                    }
+                }
+            }
+            return value;
+        }
+
+        /**
+         * @return The value if it was already created, without creating it.
+         */
+        public T getIfCreated() {
+            return initialized ? value : null;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final List<Component<?>> components = new ArrayList<>();
+    private final List<Timing> timings = new ArrayList<>();
+    private final List<Runnable> afterFirstDrawActions = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, "app-startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Milliseconds since process start at which the first frame was drawn, or -1. Main thread only.
+    private long firstDrawMillis = -1;
+
+    /**
+     * Declares a component. Dependencies must be declared first, so there can be no cycles.
+     *
+     * @param name The name shown with its timing.
+     * @param mode When to create the component if nothing needs it earlier.
+     * @param initializer Creates the value.
+     * @param dependencies Components to create before this one.
+     * @return The component.
+     */
+    public synchronized <T> Component<T> register(String name, Mode mode, Initializer<T> initializer,
+                                                  Component<?>... dependencies) {
+        Component<T> component = new Component<>(name, mode, initializer, dependencies);
+        components.add(component);
+        return component;
+    }
+
+    /**
+     * Creates the eager components and waits for the first activity to draw to create the
+     * deferred ones. Call at the end of {@code Application.onCreate}.
+     *
+     * @param application The application.
+     */
+    public void start(Application application) {
+        for (Component<?> component : snapshotComponents()) {
+            if (component.mode == Mode.EAGER) {
+                component.get();
+            }
+        }
+        application.registerActivityLifecycleCallbacks(new FirstDrawCallbacks(application));
+    }
+
+    /**
+     * Runs an action on the main thread once the first frame has been drawn, or soon if
+     * it already has, so it doesn't compete with the first frame.
+     *
+     * @param action The action. Must be called on the main thread.
+     */
+    public void runAfterFirstDraw(Runnable action) {
+        if (firstDrawMillis >= 0) {
+            mainHandler.post(action);
+        } else {
+            afterFirstDrawActions.add(action);
+        }
+    }
+
+    /**
+     * @return The creation timings so far, in the order the creations finished.
+     */
+    public synchronized List<Timing> getTimings() {
+        return Collections.unmodifiableList(new ArrayList<>(timings));
+    }
+
+    /**
+     * @return When the first frame was drawn in milliseconds since the process started,
+     * or -1 if it hasn't been yet.
+     */
+    public long getFirstDrawMillis() {
+        return firstDrawMillis;
+    }
+
+    /**
+     * @return The timings as text, one component per line.
+     */
+    public String formatTimings() {
+        StringBuilder text = new StringBuilder();
+        text.append("First draw: ")
+                .append(firstDrawMillis >= 0 ? firstDrawMillis + " ms" : "pending")
+                .append(" after process start\n");
+        for (Timing timing : getTimings()) {
+            text.append(String.format(Locale.US, "%s: %.1f ms at +%d ms on %s (%s)%n", timing.getName(),
+                    timing.getDurationMicros() / 1000.0, timing.getStartMillis(), timing.getThreadName(),
+                    timing.getMode().name().toLowerCase(Locale.US)));
+        }
+        return text.toString();
+    }
+
+    private synchronized List<Component<?>> snapshotComponents() {
+        return new ArrayList<>(components);
+    }
+
+    private synchronized void recordTiming(Component<?> component, long startUptimeMillis, long durationNanos) {
+        timings.add(new Timing(component.name, component.mode, Thread.currentThread().getName(),
+                startUptimeMillis - Process.getStartUptimeMillis(), durationNanos / 1000));
+    }
+
+    /**
+     * Called on the main thread once the first frame has been drawn.
+     */
+    private void onFirstDraw() {
+        firstDrawMillis = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        for (Runnable action : afterFirstDrawActions) {
+            mainHandler.post(action);
+        }
+        afterFirstDrawActions.clear();
+        for (Component<?> component : snapshotComponents()) {
+            if (component.mode == Mode.AFTER_FIRST_DRAW) {
+                executor.execute(component::get);
+            }
+        }
+    }
+
+    /**
+     * Watches the first resumed activity for its first frame.
+     */
+    private class FirstDrawCallbacks implements Application.ActivityLifecycleCallbacks {
+        private final Application application;
+
+        FirstDrawCallbacks(Application application) {
+            this.application = application;
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+            application.unregisterActivityLifecycleCallbacks(this);
+            View decorView = activity.getWindow().getDecorView();
+            decorView.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+                private boolean drawn;
+
+                @Override
+                public void onDraw() {
+                    if (drawn) {
+                        return;
+                    }
+                    drawn = true;
+                    // Listeners can't be removed while the tree is dispatching draws.
+                    mainHandler.post(() -> decorView.getViewTreeObserver().removeOnDrawListener(this));
+                    // The frame is being drawn now; run once it has been handed off.
+                    mainHandler.postAtFrontOfQueue(AppStartup.this::onFirstDraw);
+                }
+            });
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+        }
+    }
+}
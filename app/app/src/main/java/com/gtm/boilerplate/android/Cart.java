@@ -15,86 +15,345 @@
  */
 package com.soteria.firebaseapp.android;
 
-import java.util.ArrayList;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents the shopping cart using a Singleton pattern to ensure only one instance
  * of the cart exists throughout the application.
+ * Line items are indexed by product ID, and the subtotal and item count are maintained
+ * incrementally, so every mutation is constant-time.
+ * Mutations are serialized on a private lock; line lookups and totals are read
+ * lock-free, and the lines are published in insertion order as immutable
+ * {@link CartSnapshot}s, copied from an insertion-ordered map without sorting. Listeners are told exactly which
+ * line changed, so they never need to rescan the cart.
  */
 public class Cart {
-    // The single instance of the Cart.
-    private static Cart instance;
-    // List to hold the products added to the cart.
-    private List<Product> items;
+    // Mutation times include notifying listeners, which is where the UI and journal work happens.
+    private static final Metrics.Histogram ADD_TIME = Metrics.getInstance().histogram("cart.add");
+    private static final Metrics.Histogram SET_QUANTITY_TIME = Metrics.getInstance().histogram("cart.set_quantity");
+    private static final Metrics.Histogram REMOVE_TIME = Metrics.getInstance().histogram("cart.remove");
+    private static final Metrics.Histogram SNAPSHOT_TIME = Metrics.getInstance().histogram("cart.snapshot");
+
+    private final Object lock = new Object();
+    // Lines of the cart, keyed by product ID. Written only while holding lock.
+    private final Map<String, CartLine> lines = new ConcurrentHashMap<>();
+    // The same lines in insertion order, for snapshots. Replacing a line keeps its place.
+    // Guarded by lock.
+    private final Map<String, CartLine> orderedLines = new LinkedHashMap<>();
+    // Position assigned to the next new line, so snapshots keep insertion order.
+    private long nextPosition;
+    // Running total of price * quantity over all lines, in cents.
+    private volatile long subtotalCents;
+    // Running total of quantities over all lines.
+    private volatile int itemCount;
+    private volatile int lineCount;
+    // Latest published snapshot, or null if the cart changed since it was built.
+    private volatile CartSnapshot snapshot = CartSnapshot.EMPTY;
+    private final List<CartListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Receives fine-grained cart changes. Called on the thread that changed the cart,
+     * after the change is visible to readers. By default every change is forwarded to
+     * {@link #onCartChanged()}, for listeners that only need to know that something changed.
+     */
+    public interface CartListener {
+        default void onLineAdded(CartLine line) {
+            onCartChanged();
+        }
+
+        default void onLineRemoved(CartLine line) {
+            onCartChanged();
+        }
+
+        default void onQuantityChanged(CartLine oldLine, CartLine newLine) {
+            onCartChanged();
+        }
+
+        default void onCartCleared() {
+            onCartChanged();
+        }
+
+        default void onCartChanged() {
+        }
+    }
+
+    /**
+     * Holds the single instance, created on first access by the class loader.
+     */
+    private static class Holder {
+        static final Cart INSTANCE = new Cart();
+    }
 
     /**
      * Private constructor to prevent instantiation from outside the class.
-     * Initializes the list of items.
      */
     private Cart() {
-        items = new ArrayList<>();
     }
 
     /**
      * Provides a global point of access to the Cart instance.
-     * Creates the instance if it doesn't exist yet (thread-safe).
      *
      * @return The single instance of the Cart.
      */
-    public static synchronized Cart getInstance() {
-        if (instance == null) {
-            instance = new Cart();
-        }
-        return instance;
+    public static Cart getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Subscribes to cart changes.
+     *
+     * @param listener The listener to be notified of changes.
+     */
+    public void addListener(CartListener listener) {
+        listeners.add(listener);
     }
 
     /**
-     * Adds a product to the cart.
+     * Unsubscribes from cart changes.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(CartListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds one unit of a product to the cart. If the product is already in the cart,
+     * its quantity is increased by one instead.
      *
      * @param product The product to be added.
      */
     public void addItem(Product product) {
-        items.add(product);
+        addItem(product, 1);
+    }
+
+    /**
+     * Adds units of a product to the cart, creating its line if needed.
+     *
+     * @param product The product to be added.
+     * @param quantity The number of units to add.
+     */
+    public void addItem(Product product, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        CartLine oldLine;
+        CartLine newLine;
+        synchronized (lock) {
+            oldLine = lines.get(product.getId());
+            newLine = oldLine == null
+                    ? new CartLine(product, quantity, nextPosition++)
+                    : oldLine.withQuantity(oldLine.getQuantity() + quantity);
+            replaceLine(oldLine, newLine);
+        }
+        if (oldLine == null) {
+            for (CartListener listener : listeners) {
+                listener.onLineAdded(newLine);
+            }
+        } else {
+            notifyQuantityChanged(oldLine, newLine);
+        }
+        ADD_TIME.recordSince(start);
+    }
+
+    /**
+     * Adds a line for a product only if the product is not in the cart yet, e.g. when
+     * restoring a persisted cart without overriding changes made in this session.
+     *
+     * @param product The product to be added.
+     * @param quantity The quantity of the new line.
+     * @return True if the line was added.
+     */
+    public boolean addItemIfAbsent(Product product, int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        CartLine newLine;
+        synchronized (lock) {
+            if (lines.containsKey(product.getId())) {
+                return false;
+            }
+            newLine = new CartLine(product, quantity, nextPosition++);
+            replaceLine(null, newLine);
+        }
+        for (CartListener listener : listeners) {
+            listener.onLineAdded(newLine);
+        }
+        return true;
+    }
+
+    /**
+     * Changes the quantity of a product in the cart, keeping the totals up to date.
+     * A quantity of zero or less removes the product.
+     *
+     * @param productId The ID of the product in the cart.
+     * @param quantity The new quantity.
+     */
+    public void setQuantity(String productId, int quantity) {
+        if (quantity <= 0) {
+            removeItem(productId);
+            return;
+        }
+        long start = System.nanoTime();
+        CartLine oldLine;
+        CartLine newLine;
+        synchronized (lock) {
+            oldLine = lines.get(productId);
+            if (oldLine == null || oldLine.getQuantity() == quantity) {
+                return;
+            }
+            newLine = oldLine.withQuantity(quantity);
+            replaceLine(oldLine, newLine);
+        }
+        notifyQuantityChanged(oldLine, newLine);
+        SET_QUANTITY_TIME.recordSince(start);
     }
 
     /**
-     * Retrieves the list of all items currently in the cart.
+     * Removes a product from the cart.
      *
-     * @return A List of Products in the cart.
+     * @param productId The ID of the product to be removed.
      */
-    public List<Product> getItems() {
-        return items;
+    public void removeItem(String productId) {
+        long start = System.nanoTime();
+        CartLine removed;
+        synchronized (lock) {
+            removed = lines.get(productId);
+            if (removed == null) {
+                return;
+            }
+            replaceLine(removed, null);
+        }
+        for (CartListener listener : listeners) {
+            listener.onLineRemoved(removed);
+        }
+        REMOVE_TIME.recordSince(start);
     }
 
     /**
      * Clears all items from the cart.
      */
     public void clearCart() {
-        items.clear();
+        synchronized (lock) {
+            lines.clear();
+            orderedLines.clear();
+            subtotalCents = 0;
+            itemCount = 0;
+            lineCount = 0;
+            snapshot = CartSnapshot.EMPTY;
+        }
+        for (CartListener listener : listeners) {
+            listener.onCartCleared();
+        }
     }
 
     /**
-     * Finds a product in the cart by its ID.
+     * Swaps one line for another and applies the difference to the running totals.
+     * Must be called while holding the lock.
      *
-     * @param productId The ID of the product to find.
-     * @return The Product object if found, otherwise null.
+     * @param oldLine The line being replaced, or null when adding.
+     * @param newLine The replacement line, or null when removing.
+     */
+    private void replaceLine(CartLine oldLine, CartLine newLine) {
+        long subtotalDelta = 0;
+        int itemDelta = 0;
+        if (oldLine != null) {
+            subtotalDelta -= oldLine.getLineTotalCents();
+            itemDelta -= oldLine.getQuantity();
+        }
+        if (newLine != null) {
+            lines.put(newLine.getProductId(), newLine);
+            orderedLines.put(newLine.getProductId(), newLine);
+            subtotalDelta += newLine.getLineTotalCents();
+            itemDelta += newLine.getQuantity();
+        } else {
+            lines.remove(oldLine.getProductId());
+            orderedLines.remove(oldLine.getProductId());
+        }
+        subtotalCents += subtotalDelta;
+        itemCount += itemDelta;
+        lineCount = lines.size();
+        snapshot = null;
+    }
+
+    private void notifyQuantityChanged(CartLine oldLine, CartLine newLine) {
+        for (CartListener listener : listeners) {
+            listener.onQuantityChanged(oldLine, newLine);
+        }
+    }
+
+    /**
+     * Returns an immutable view of the cart. The snapshot is rebuilt at most once per
+     * change, and only when someone asks for it; otherwise this is a single volatile read.
+     * Point lookups should use {@link #findLine(String)}, which never builds a snapshot.
+     *
+     * @return The current snapshot of the cart.
      */
-    public Product findProduct(String productId) {
-        for (Product p : items) {
-            if (p.getId().equals(productId)) {
-                return p;
+    public CartSnapshot getSnapshot() {
+        CartSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (snapshot == null) {
+                long start = System.nanoTime();
+                snapshot = new CartSnapshot(orderedLines.values(), subtotalCents, itemCount);
+                SNAPSHOT_TIME.recordSince(start);
             }
+            return snapshot;
         }
-        return null;
     }
 
     /**
-     * Removes a specific product from the cart.
+     * Retrieves the lines currently in the cart, in the order they were added.
+     *
+     * @return An immutable list of cart lines.
+     */
+    public List<CartLine> getLines() {
+        return getSnapshot().getLines();
+    }
+
+    /**
+     * Finds a line in the cart by product ID.
      *
-     * @param product The product to be removed.
+     * @param productId The ID of the product to find.
+     * @return The CartLine if found, otherwise null.
+     */
+    public CartLine findLine(String productId) {
+        return lines.get(productId);
+    }
+
+    /**
+     * @return The number of distinct products (lines) in the cart.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return The total quantity of all products in the cart.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * @return The sum of price * quantity over all lines, in cents.
+     */
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    /**
+     * @return The sum of price * quantity over all lines, as an exact decimal amount.
      */
-    public void removeItem(Product product) {
-        items.remove(product);
+    public BigDecimal getSubtotal() {
+        return BigDecimal.valueOf(subtotalCents, 2);
     }
 }
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.navigation.fragment.NavHostFragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+/**
+ * Manages the user's shopping cart, displaying items, total price,
+ * and handling the checkout process.
+ */
+public class CartFragment extends Fragment {
+    private static final Metrics.Histogram CREATE_VIEW_TIME =
+            Metrics.getInstance().histogram("screen.cart.create_view");
+
+    private EventDispatcher eventDispatcher;
+    private Button checkoutButton;
+    private TextView cartTotalTextView;
+    private CartLineAdapter cartLineAdapter;
+    private long createViewStart;
+
+    // Applies each cart change to the one row it affects, and updates the totals the cart
+    // maintains incrementally; nothing rescans the cart. Cart changes can happen on any
+    // thread. Registered only while the views exist.
+    private final Cart.CartListener cartListener = new Cart.CartListener() {
+        @Override
+        public void onLineAdded(CartLine line) {
+            onLineChanged(line);
+        }
+
+        @Override
+        public void onLineRemoved(CartLine line) {
+            onLineChanged(line);
+        }
+
+        @Override
+        public void onQuantityChanged(CartLine oldLine, CartLine newLine) {
+            onLineChanged(newLine);
+        }
+
+        @Override
+        public void onCartCleared() {
+            checkoutButton.post(() -> {
+                cartLineAdapter.setLines(Cart.getInstance().getLines());
+                updateCartTotal();
+            });
+        }
+
+        private void onLineChanged(CartLine line) {
+            checkoutButton.post(() -> {
+                cartLineAdapter.onLineChanged(line);
+                updateCartTotal();
+            });
+        }
+    };
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Get the shared analytics event dispatcher.
+        eventDispatcher = EventDispatcher.getInstance(requireContext());
+    }
+
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        createViewStart = System.nanoTime();
+        return inflater.inflate(R.layout.fragment_cart, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        // Take an immutable snapshot of the cart.
+        CartSnapshot cartSnapshot = Cart.getInstance().getSnapshot();
+
+        checkoutButton = view.findViewById(R.id.checkout_button);
+        cartTotalTextView = view.findViewById(R.id.cart_total_textview);
+
+        // Display the cart lines in a recycled list.
+        RecyclerView cartItemsRecyclerView = view.findViewById(R.id.cart_items_recyclerview);
+        cartItemsRecyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        cartLineAdapter = new CartLineAdapter(ImageLoader.getInstance(requireContext()), this::changeQuantity);
+        cartItemsRecyclerView.setAdapter(cartLineAdapter);
+        cartLineAdapter.setLines(cartSnapshot.getLines());
+
+        // React to cart changes, wherever they come from.
+        Cart.getInstance().addListener(cartListener);
+
+        // Set listener for the checkout button.
+        checkoutButton.setOnClickListener(button -> {
+            // A tap queued before the button was disabled still arrives; ignore it.
+            if (!checkoutButton.isEnabled()) {
+                return;
+            }
+            if (checkoutButton.getText().toString().equals("Add products")) {
+                // If cart is empty, go back to the product list.
+                NavHostFragment.findNavController(this).navigate(R.id.action_global_product_list);
+            } else {
+                // If cart has items, proceed with checkout. Disabled before anything else,
+                // so a second tap in the same frame can't check out again.
+                checkoutButton.setEnabled(false);
+                performCheckoutProcess();
+
+                // The same ID is sent as the transaction ID and shown on the success screen.
+                // It stays the same for this cart until the purchase is logged, so a repeated
+                // checkout is dropped as a duplicate.
+                CartSnapshot checkoutSnapshot = Cart.getInstance().getSnapshot();
+                String orderId = MyApplication.pendingOrder.get().orderIdFor(checkoutSnapshot);
+
+                // Send the pending cart events first, so they precede the purchase.
+                EventBatcher.getInstance(requireContext()).flush();
+
+                // Log the purchase event to Firebase Analytics. The bundle is built here
+                // because the cart is cleared right after checkout.
+                Bundle purchaseBundle = EcommercePayloadBuilder.getInstance()
+                        .purchase(checkoutSnapshot, orderId);
+                eventDispatcher.dispatch(FirebaseAnalytics.Event.PURCHASE, () -> purchaseBundle);
+
+                // Navigate to the success screen; the cart leaves the back stack.
+                Bundle successArguments = new Bundle();
+                successArguments.putString(SuccessFragment.ARG_ORDER_ID, orderId);
+                successArguments.putString(SuccessFragment.ARG_PURCHASE_JSON,
+                        ToolbarAndBottomSheet.getDemoJson(FirebaseAnalytics.Event.PURCHASE, purchaseBundle));
+                NavHostFragment.findNavController(this).navigate(R.id.action_cart_to_success, successArguments);
+
+                // Clear the cart after successful checkout.
+                Cart.getInstance().clearCart();
+            }
+        });
+
+        // Log the view_cart event each time the cart is shown.
+        // The snapshot is immutable, so the worker thread can safely read it.
+        eventDispatcher.dispatch(FirebaseAnalytics.Event.VIEW_CART,
+                () -> EcommercePayloadBuilder.getInstance().viewCart(cartSnapshot));
+
+        // Display the total price, which the cart maintains incrementally, and set the
+        // initial state of the checkout button.
+        updateCartTotal();
+
+        CREATE_VIEW_TIME.recordSince(createViewStart);
+    }
+
+    @Override
+    public void onDestroyView() {
+        // The cart outlives these views, so stop listening to avoid leaking them.
+        Cart.getInstance().removeListener(cartListener);
+        super.onDestroyView();
+    }
+
+    /**
+     * Changes the quantity of a cart line by one unit and logs the change. The cart
+     * listener then updates the row. Bursts of taps are coalesced by the EventBatcher.
+     *
+     * @param line The line that was tapped.
+     * @param delta 1 to add a unit, -1 to remove one; removing the last unit removes the line.
+     */
+    private void changeQuantity(CartLine line, int delta) {
+        Cart cart = Cart.getInstance();
+        CartLine current = cart.findLine(line.getProductId());
+        if (current == null) {
+            return;
+        }
+        cart.setQuantity(current.getProductId(), current.getQuantity() + delta);
+        EventBatcher eventBatcher = EventBatcher.getInstance(requireContext());
+        if (delta > 0) {
+            eventBatcher.addToCart(current.getProduct(), delta);
+        } else {
+            eventBatcher.removeFromCart(current.getProduct(), -delta);
+        }
+    }
+
+    /**
+     * Placeholder for the checkout logic.
+     */
+    private void performCheckoutProcess() {
+        // Implement your checkout logic here (e.g., payment processing).
+    }
+
+    /**
+     * Recalculates and updates the total price displayed on the UI.
+     * Also updates the state of the checkout button.
+     */
+    private void updateCartTotal() {
+        cartTotalTextView.setText("Total: " + Product.formatPrice(Cart.getInstance().getSubtotalCents()));
+
+        updateCheckoutButtonState();
+    }
+
+    /**
+     * Updates the checkout button's text and enabled state based on whether
+     * the cart is empty or not.
+     */
+    private void updateCheckoutButtonState() {
+        int cartItemCount = Cart.getInstance().getLineCount();
+        if (cartItemCount > 0) {
+            checkoutButton.setEnabled(true);
+            checkoutButton.setText("Checkout");
+        } else {
+            checkoutButton.setText("Add products");
+        }
+    }
+}
@@ -0,0 +1,405 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the {@link Cart} to an append-only binary journal so it survives process death.
+ * <p>
+ * Every cart change is turned into a small record and written behind on a background
+ * thread. Records queued while a write is in progress are written together and synced
+ * with a single fsync (group commit). On start the journal is memory-mapped and replayed
+ * on the same background thread, so cold start never waits for disk I/O.
+ * <p>
+ * File layout: a header ({@code MAGIC}, format version, app version code) followed by
+ * records of {@code [int length][int crc32][payload]}. Replay stops at the first torn or
+ * corrupt record and the file is truncated there, so a crash mid-write loses at most the
+ * records of the batch being written. All records are absolute (set line, set quantity,
+ * remove, clear), which makes replaying them more than once harmless.
+ */
+public class CartJournal implements Cart.CartListener {
+    private static final int MAGIC = 0x43525431; // "CRT1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    // Records larger than this can only come from corruption.
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+    // The journal is compacted once it holds this many records more than the cart has lines.
+    private static final int COMPACTION_SLACK = 256;
+
+    private static final byte OP_PUT_LINE = 1;
+    private static final byte OP_SET_QUANTITY = 2;
+    private static final byte OP_REMOVE = 3;
+    private static final byte OP_CLEAR = 4;
+
+    private final Cart cart;
+    private final File file;
+    private final int appVersionCode;
+    private final ExecutorService writer;
+    private final LinkedBlockingQueue<byte[]> pendingRecords = new LinkedBlockingQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Future<?> restored;
+
+    // Only accessed on the writer thread.
+    private FileOutputStream output;
+    private DataOutputStream dataOutput;
+    private int recordCount;
+
+    /**
+     * Creates a journal for a cart and starts restoring it in the background.
+     * Changes made to the cart before the restore completes are kept and win over
+     * the persisted state.
+     *
+     * @param cart The cart to persist.
+     * @param file The journal file.
+     * @param appVersionCode The version code of the app; journals written by another
+     *     version are discarded because they store drawable resource IDs.
+     */
+    public CartJournal(Cart cart, File file, int appVersionCode) {
+        this.cart = cart;
+        this.file = file;
+        this.appVersionCode = appVersionCode;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Listen before restoring so no change is missed; the writer thread
+        // restores first and only then writes the queued records.
+        cart.addListener(this);
+        this.restored = writer.submit(this::restore);
+    }
+
+    /**
+     * Waits for the restore to complete and all queued records to be written.
+     * Meant for tests and benchmarks; never call it on the main thread.
+     */
+    public void awaitIdle() throws Exception {
+        restored.get();
+        writer.submit(() -> { }).get();
+    }
+
+    /**
+     * Stops journaling cart changes and closes the journal file.
+     */
+    public void close() {
+        cart.removeListener(this);
+        writer.execute(() -> {
+            flushPending();
+            closeOutput();
+        });
+        writer.shutdown();
+    }
+
+    @Override
+    public void onLineAdded(CartLine line) {
+        enqueue(encodePutLine(line));
+    }
+
+    @Override
+    public void onQuantityChanged(CartLine oldLine, CartLine newLine) {
+        enqueue(encode(OP_SET_QUANTITY, newLine.getProductId(), newLine.getQuantity()));
+    }
+
+    @Override
+    public void onLineRemoved(CartLine line) {
+        enqueue(encode(OP_REMOVE, line.getProductId(), 0));
+    }
+
+    @Override
+    public void onCartCleared() {
+        enqueue(encode(OP_CLEAR, null, 0));
+    }
+
+    /**
+     * Queues a record and schedules a flush unless one is already pending, so a burst
+     * of changes is written as one batch.
+     *
+     * @param record The encoded record payload.
+     */
+    private void enqueue(byte[] record) {
+        pendingRecords.add(record);
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.execute(() -> {
+                flushScheduled.set(false);
+                flushPending();
+            });
+        }
+    }
+
+    /**
+     * Writes all queued records and syncs them to disk once. Runs on the writer thread.
+     */
+    private void flushPending() {
+        List<byte[]> batch = new ArrayList<>();
+        pendingRecords.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            openOutput();
+            for (byte[] record : batch) {
+                writeRecord(dataOutput, record);
+            }
+            dataOutput.flush();
+            output.getFD().sync();
+            recordCount += batch.size();
+            if (recordCount > cart.getLineCount() + COMPACTION_SLACK) {
+                compact();
+            }
+        } catch (IOException e) {
+            // Persistence is best effort; the in-memory cart stays authoritative.
+            closeOutput();
+        }
+    }
+
+    /**
+     * Rewrites the journal as one record per current cart line, atomically replacing
+     * the old file. Runs on the writer thread.
+     */
+    private void compact() throws IOException {
+        closeOutput();
+        File compacted = new File(file.getPath() + ".tmp");
+        int lines = 0;
+        try (FileOutputStream tmpOutput = new FileOutputStream(compacted)) {
+            DataOutputStream tmpData = new DataOutputStream(new BufferedOutputStream(tmpOutput));
+            writeHeader(tmpData);
+            for (CartLine line : cart.getSnapshot().getLines()) {
+                writeRecord(tmpData, encodePutLine(line));
+                lines++;
+            }
+            tmpData.flush();
+            tmpOutput.getFD().sync();
+        }
+        if (!compacted.renameTo(file)) {
+            throw new IOException("Unable to replace " + file);
+        }
+        recordCount = lines;
+    }
+
+    /**
+     * Memory-maps the journal, replays its valid records and merges the result into
+     * the cart. Runs on the writer thread before any record is written.
+     */
+    private void restore() {
+        Map<String, CartLine> lines = new LinkedHashMap<>();
+        long validLength;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            validLength = 0;
+            if (size >= HEADER_SIZE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (buffer.getInt() == MAGIC && buffer.getInt() == FORMAT_VERSION
+                        && buffer.getInt() == appVersionCode) {
+                    validLength = replay(buffer, lines);
+                }
+            }
+            if (validLength < size) {
+                // Drop a torn tail, or an incompatible journal altogether.
+                channel.truncate(validLength);
+            }
+        } catch (IOException e) {
+            lines.clear();
+            file.delete();
+        }
+
+        for (CartLine line : lines.values()) {
+            cart.addItemIfAbsent(line.getProduct(), line.getQuantity());
+        }
+        // Restoring re-queued every line; fold the journal down to the merged cart.
+        pendingRecords.clear();
+        try {
+            compact();
+        } catch (IOException e) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Applies every valid record to the given lines.
+     *
+     * @param buffer The journal, positioned after the header.
+     * @param lines The lines being restored, keyed by product ID.
+     * @return The offset just past the last valid record.
+     */
+    private long replay(ByteBuffer buffer, Map<String, CartLine> lines) {
+        long validLength = buffer.position();
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || length > buffer.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            try {
+                apply(payload, lines);
+            } catch (IOException e) {
+                break;
+            }
+            validLength = buffer.position();
+            recordCount++;
+        }
+        return validLength;
+    }
+
+    private void apply(byte[] payload, Map<String, CartLine> lines) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = input.readByte();
+        switch (op) {
+            case OP_PUT_LINE: {
+                String id = input.readUTF();
+                String name = input.readUTF();
+                String category = input.readUTF();
+                double price = input.readDouble();
+                int imageResource = input.readInt();
+                String sku = input.readUTF();
+                int quantity = input.readInt();
+                Product product = new Product(id, name, category, price, imageResource, sku);
+                lines.put(id, new CartLine(product, quantity, lines.size()));
+                break;
+            }
+            case OP_SET_QUANTITY: {
+                String id = input.readUTF();
+                int quantity = input.readInt();
+                CartLine line = lines.get(id);
+                if (line != null) {
+                    lines.put(id, line.withQuantity(quantity));
+                }
+                break;
+            }
+            case OP_REMOVE:
+                lines.remove(input.readUTF());
+                break;
+            case OP_CLEAR:
+                lines.clear();
+                break;
+            default:
+                throw new IOException("Unknown journal op " + op);
+        }
+    }
+
+    private static byte[] encodePutLine(CartLine line) {
+        Product product = line.getProduct();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream data = new DataOutputStream(bytes);
+            data.writeByte(OP_PUT_LINE);
+            data.writeUTF(product.getId());
+            data.writeUTF(nullToEmpty(product.getName()));
+            data.writeUTF(nullToEmpty(product.getCategory()));
+            data.writeDouble(product.getPrice());
+            data.writeInt(product.getImageResource());
+            data.writeUTF(nullToEmpty(product.getSku()));
+            data.writeInt(line.getQuantity());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] encode(byte op, String productId, int quantity) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream data = new DataOutputStream(bytes);
+            data.writeByte(op);
+            if (op != OP_CLEAR) {
+                data.writeUTF(productId);
+            }
+            if (op == OP_SET_QUANTITY) {
+                data.writeInt(quantity);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream data, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        data.writeInt(payload.length);
+        data.writeInt((int) crc.getValue());
+        data.write(payload);
+    }
+
+    private void writeHeader(DataOutputStream data) throws IOException {
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(appVersionCode);
+    }
+
+    /**
+     * Opens the journal for appending, writing the header if the file is new.
+     */
+    private void openOutput() throws IOException {
+        if (output != null) {
+            return;
+        }
+        boolean isNew = file.length() < HEADER_SIZE;
+        output = new FileOutputStream(file, !isNew);
+        dataOutput = new DataOutputStream(new BufferedOutputStream(output));
+        if (isNew) {
+            writeHeader(dataOutput);
+            recordCount = 0;
+        }
+    }
+
+    private void closeOutput() {
+        if (output == null) {
+            return;
+        }
+        try {
+            dataOutput.close();
+        } catch (IOException e) {
+            // Nothing more can be done with a journal that failed to close.
+        }
+        output = null;
+        dataOutput = null;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
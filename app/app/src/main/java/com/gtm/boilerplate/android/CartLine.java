@@ -0,0 +1,72 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+/**
+ * An immutable line of the {@link Cart}: a product and the quantity ordered.
+ * Changing the quantity produces a new line.
+ */
+public class CartLine {
+    private final Product product;
+    private final int quantity;
+    private final long position;
+
+    /**
+     * Constructs a new CartLine.
+     *
+     * @param product The product ordered.
+     * @param quantity The quantity ordered, at least 1.
+     * @param position The order in which the line was added to the cart.
+     */
+    public CartLine(Product product, int quantity, long position) {
+        this.product = product;
+        this.quantity = quantity;
+        this.position = position;
+    }
+
+    /**
+     * Returns a copy of this line with a different quantity.
+     *
+     * @param newQuantity The new quantity.
+     * @return A new CartLine for the same product.
+     */
+    public CartLine withQuantity(int newQuantity) {
+        return new CartLine(product, newQuantity, position);
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public String getProductId() {
+        return product.getId();
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return The price of the product times the quantity, in cents.
+     */
+    public long getLineTotalCents() {
+        return product.getPriceCents() * quantity;
+    }
+}
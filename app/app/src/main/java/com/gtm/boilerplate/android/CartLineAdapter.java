@@ -0,0 +1,229 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A RecyclerView adapter displaying the lines of the cart. It is kept up to date
+ * line by line from the cart's change callbacks: an added line is inserted, a removed
+ * one removed, and a quantity change rebinds just the quantity of that row, so no
+ * change rescans or diffs the whole cart. Must be used on the main thread.
+ */
+public class CartLineAdapter extends RecyclerView.Adapter<CartLineAdapter.ViewHolder> {
+    // Change payload for lines whose product is unchanged but whose quantity differs.
+    private static final Object PAYLOAD_QUANTITY = new Object();
+
+    // Number of rows inflated since the process started, for benchmarks.
+    private static final AtomicInteger inflationCount = new AtomicInteger();
+
+    // The displayed lines, in insertion order and therefore sorted by position.
+    private final List<CartLine> lines = new ArrayList<>();
+
+    private final ImageLoader imageLoader;
+    private final QuantityChangeListener quantityChangeListener;
+
+    /**
+     * Receives the +/- taps of the rows.
+     */
+    public interface QuantityChangeListener {
+        /**
+         * @param line The line as displayed when it was tapped.
+         * @param delta The requested change in quantity, 1 or -1.
+         */
+        void onQuantityChangeRequested(CartLine line, int delta);
+    }
+
+    /**
+     * Constructor for the CartLineAdapter.
+     *
+     * @param imageLoader The loader used for the product images.
+     * @param quantityChangeListener Applies the quantity changes requested by the rows.
+     */
+    public CartLineAdapter(ImageLoader imageLoader, QuantityChangeListener quantityChangeListener) {
+        this.imageLoader = imageLoader;
+        this.quantityChangeListener = quantityChangeListener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * @return The number of cart rows inflated since the process started.
+     */
+    public static int getInflationCount() {
+        return inflationCount.get();
+    }
+
+    /**
+     * Replaces all the displayed lines, e.g. when the screen is created or the cart cleared.
+     *
+     * @param newLines The lines of the cart, in the order they were added.
+     */
+    public void setLines(List<CartLine> newLines) {
+        lines.clear();
+        lines.addAll(newLines);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Applies a change to one line of the cart. The line is looked up again in the cart,
+     * so changes that reach the main thread out of order still leave the row current.
+     *
+     * @param line The line that was added, removed or changed.
+     */
+    public void onLineChanged(CartLine line) {
+        CartLine current = Cart.getInstance().findLine(line.getProductId());
+        if (current == null || current.getPosition() != line.getPosition()) {
+            // The line was removed, and its product possibly added again as a new line.
+            removeLine(line.getPosition());
+            if (current == null) {
+                return;
+            }
+        }
+        int index = indexOf(current.getPosition());
+        if (index >= 0) {
+            if (lines.get(index) != current) {
+                lines.set(index, current);
+                notifyItemChanged(index, PAYLOAD_QUANTITY);
+            }
+        } else {
+            int insertionIndex = -(index + 1);
+            lines.add(insertionIndex, current);
+            notifyItemInserted(insertionIndex);
+        }
+    }
+
+    private void removeLine(long position) {
+        int index = indexOf(position);
+        if (index >= 0) {
+            lines.remove(index);
+            notifyItemRemoved(index);
+        }
+    }
+
+    /**
+     * Binary searches the displayed lines by position.
+     *
+     * @param position The position of the line in the cart.
+     * @return The index of the line, or (-(insertion point) - 1) if it is not displayed.
+     */
+    private int indexOf(long position) {
+        int low = 0;
+        int high = lines.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midPosition = lines.get(mid).getPosition();
+            if (midPosition < position) {
+                low = mid + 1;
+            } else if (midPosition > position) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public int getItemCount() {
+        return lines.size();
+    }
+
+    private CartLine getItem(int position) {
+        return lines.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        // Positions are unique per line for the lifetime of the cart.
+        return getItem(position).getPosition();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.cart_item, parent, false);
+        inflationCount.incrementAndGet();
+        return new ViewHolder(view, this);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        CartLine line = getItem(position);
+        Product product = line.getProduct();
+        holder.productNameTextView.setText(product.getName());
+        holder.productPriceTextView.setText(product.getDisplayPrice());
+        imageLoader.load(holder.productImageView, product.getImageResource());
+        holder.quantityTextView.setText(String.valueOf(line.getQuantity()));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // Quantity-only changes are the sole payload, anything else is a full rebind.
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        holder.quantityTextView.setText(String.valueOf(getItem(position).getQuantity()));
+    }
+
+    /**
+     * Forwards a +/- tap on the line at an adapter position to the listener.
+     *
+     * @param position The adapter position of the line.
+     * @param delta The requested change in quantity.
+     */
+    private void requestQuantityChange(int position, int delta) {
+        if (position != RecyclerView.NO_POSITION) {
+            quantityChangeListener.onQuantityChangeRequested(getItem(position), delta);
+        }
+    }
+
+    /**
+     * Caches the views of a cart row. The button listeners are attached once per
+     * holder and look up the line they act on when clicked.
+     */
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final ImageView productImageView;
+        final TextView productNameTextView;
+        final TextView productPriceTextView;
+        final TextView quantityTextView;
+
+        ViewHolder(View itemView, CartLineAdapter adapter) {
+            super(itemView);
+            productImageView = itemView.findViewById(R.id.product_imageview);
+            productNameTextView = itemView.findViewById(R.id.product_name_textview);
+            productPriceTextView = itemView.findViewById(R.id.product_price_textview);
+            quantityTextView = itemView.findViewById(R.id.quantity_textview);
+            Button increaseButton = itemView.findViewById(R.id.increase_button);
+            Button decreaseButton = itemView.findViewById(R.id.decrease_button);
+            increaseButton.setOnClickListener(v -> adapter.requestQuantityChange(getBindingAdapterPosition(), 1));
+            decreaseButton.setOnClickListener(v -> adapter.requestQuantityChange(getBindingAdapterPosition(), -1));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of the {@link Cart} at a point in time. Safe to share across
+ * threads and to read while the cart keeps changing.
+ */
+public class CartSnapshot {
+    // The snapshot of an empty cart.
+    public static final CartSnapshot EMPTY = new CartSnapshot(Collections.emptyList(), 0, 0);
+
+    private final List<CartLine> lines;
+    private final Map<String, CartLine> index;
+    private final long subtotalCents;
+    private final int itemCount;
+
+    /**
+     * Constructs a new CartSnapshot.
+     *
+     * @param lines The lines of the cart, in the order they were added.
+     * @param subtotalCents The sum of all line totals, in cents.
+     * @param itemCount The sum of all line quantities.
+     */
+    CartSnapshot(Collection<CartLine> lines, long subtotalCents, int itemCount) {
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        Map<String, CartLine> lineIndex = new HashMap<>();
+        for (CartLine line : lines) {
+            lineIndex.put(line.getProductId(), line);
+        }
+        this.index = lineIndex;
+        this.subtotalCents = subtotalCents;
+        this.itemCount = itemCount;
+    }
+
+    /**
+     * @return The lines of the cart, in the order they were added.
+     */
+    public List<CartLine> getLines() {
+        return lines;
+    }
+
+    /**
+     * Finds a line by product ID.
+     *
+     * @param productId The ID of the product.
+     * @return The line, or null if the product is not in the cart.
+     */
+    public CartLine findLine(String productId) {
+        return index.get(productId);
+    }
+
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public BigDecimal getSubtotal() {
+        return BigDecimal.valueOf(subtotalCents, 2);
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+import android.util.LruCache;
+import android.util.SparseArray;
+
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.util.List;
+
+/**
+ * Builds the parameters of the GA4 ecommerce events, with the products in a standard
+ * {@code items} array. The item Bundle of a product is built once per quantity and
+ * reused by every later event, as is the whole view_item payload of a product.
+ * Memoized Bundles are shared, so callers must not modify what this class returns
+ * except for the top-level event Bundles, which are always new.
+ */
+public class EcommercePayloadBuilder {
+    // Currency of all prices in the catalog.
+    public static final String CURRENCY = "USD";
+    // Affiliation reported with purchases.
+    private static final String AFFILIATION = "Store Name";
+
+    // Maximum number of products whose item Bundles are kept.
+    private static final int MAX_CACHED_PRODUCTS = 256;
+    // Item Bundles are memoized for quantities up to this one; larger ones are rare.
+    private static final int MAX_MEMOIZED_QUANTITY = 32;
+    // Quantity key of the item Bundle without a quantity parameter.
+    private static final int NO_QUANTITY = 0;
+
+    // LruCache is thread-safe, so events can be built on the dispatcher thread.
+    private final LruCache<String, ProductItems> productItems = new LruCache<>(MAX_CACHED_PRODUCTS);
+
+    /**
+     * The memoized item Bundles of one product, keyed by quantity.
+     */
+    private static class ProductItems {
+        final Product product;
+        final SparseArray<Bundle> itemsByQuantity = new SparseArray<>();
+        Bundle viewItem;
+
+        ProductItems(Product product) {
+            this.product = product;
+        }
+    }
+
+    /**
+     * Holds the single instance, created on first access by the class loader.
+     */
+    private static class Holder {
+        static final EcommercePayloadBuilder INSTANCE = new EcommercePayloadBuilder();
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     */
+    private EcommercePayloadBuilder() {
+    }
+
+    /**
+     * Provides a global point of access to the EcommercePayloadBuilder instance.
+     *
+     * @return The single instance of the EcommercePayloadBuilder.
+     */
+    public static EcommercePayloadBuilder getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the item Bundle of a product for an {@code items} array. Must not be modified.
+     *
+     * @param product The product.
+     * @param quantity The quantity to report, or 0 to leave it out.
+     * @return The shared item Bundle.
+     */
+    public Bundle getItem(Product product, int quantity) {
+        if (quantity > MAX_MEMOIZED_QUANTITY || quantity < 0) {
+            return createItem(product, quantity);
+        }
+        ProductItems items = getProductItems(product);
+        synchronized (items) {
+            Bundle item = items.itemsByQuantity.get(quantity);
+            if (item == null) {
+                item = createItem(product, quantity);
+                items.itemsByQuantity.put(quantity, item);
+            }
+            return item;
+        }
+    }
+
+    /**
+     * Creates the parameters of a 'view_item' event. The payload of a product never
+     * changes, so it is built once and then copied.
+     *
+     * @param product The product being viewed.
+     * @return A new Bundle containing the event parameters.
+     */
+    public Bundle viewItem(Product product) {
+        ProductItems items = getProductItems(product);
+        Bundle viewItem;
+        synchronized (items) {
+            viewItem = items.viewItem;
+            if (viewItem == null) {
+                viewItem = createEvent(product.getPriceCents(), getItem(product, NO_QUANTITY));
+                items.viewItem = viewItem;
+            }
+        }
+        return new Bundle(viewItem);
+    }
+
+    /**
+     * Creates the parameters of an 'add_to_cart' event.
+     *
+     * @param product The product being added to the cart.
+     * @param quantity The number of units added.
+     * @return A new Bundle containing the event parameters.
+     */
+    public Bundle addToCart(Product product, int quantity) {
+        return createEvent(product.getPriceCents() * quantity, getItem(product, quantity));
+    }
+
+    /**
+     * Creates the parameters of a 'remove_from_cart' event.
+     *
+     * @param product The product being removed from the cart.
+     * @param quantity The number of units removed.
+     * @return A new Bundle containing the event parameters.
+     */
+    public Bundle removeFromCart(Product product, int quantity) {
+        return createEvent(product.getPriceCents() * quantity, getItem(product, quantity));
+    }
+
+    /**
+     * Creates the parameters of a 'view_item_list' event.
+     *
+     * @param products The products shown, in display order.
+     * @return A new Bundle containing the event parameters.
+     */
+    public Bundle viewItemList(List<Product> products) {
+        Bundle[] items = new Bundle[products.size()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = getItem(products.get(i), NO_QUANTITY);
+        }
+        Bundle bundle = new Bundle();
+        bundle.putParcelableArray(FirebaseAnalytics.Param.ITEMS, items);
+        return bundle;
+    }
+
+    /**
+     * Creates the parameters of a 'view_cart' event.
+     *
+     * @param cartSnapshot The cart being viewed.
+     * @return A new Bundle containing the event parameters.
+     */
+    public Bundle viewCart(CartSnapshot cartSnapshot) {
+        return createEvent(cartSnapshot.getSubtotalCents(), getItems(cartSnapshot.getLines()));
+    }
+
+    /**
+     * Creates the parameters of a 'purchase' event.
+     *
+     * @param cartSnapshot The cart being purchased.
+     * @param transactionId The unique ID of the order.
+     * @return A new Bundle containing the event parameters.
+     */
+    public Bundle purchase(CartSnapshot cartSnapshot, String transactionId) {
+        Bundle bundle = createEvent(cartSnapshot.getSubtotalCents(), getItems(cartSnapshot.getLines()));
+        bundle.putString(FirebaseAnalytics.Param.TRANSACTION_ID, transactionId);
+        bundle.putString(FirebaseAnalytics.Param.AFFILIATION, AFFILIATION);
+        return bundle;
+    }
+
+    private Bundle[] getItems(List<CartLine> lines) {
+        Bundle[] items = new Bundle[lines.size()];
+        for (int i = 0; i < items.length; i++) {
+            CartLine line = lines.get(i);
+            items[i] = getItem(line.getProduct(), line.getQuantity());
+        }
+        return items;
+    }
+
+    private static Bundle createEvent(long valueCents, Bundle... items) {
+        Bundle bundle = new Bundle();
+        bundle.putString(FirebaseAnalytics.Param.CURRENCY, CURRENCY);
+        bundle.putDouble(FirebaseAnalytics.Param.VALUE, valueCents / 100.0);
+        bundle.putParcelableArray(FirebaseAnalytics.Param.ITEMS, items);
+        return bundle;
+    }
+
+    private static Bundle createItem(Product product, int quantity) {
+        Bundle item = new Bundle();
+        item.putString(FirebaseAnalytics.Param.ITEM_ID, product.getId());
+        item.putString(FirebaseAnalytics.Param.ITEM_NAME, product.getName());
+        item.putString(FirebaseAnalytics.Param.ITEM_CATEGORY, product.getCategory());
+        item.putString(FirebaseAnalytics.Param.ITEM_VARIANT, product.getSku());
+        item.putDouble(FirebaseAnalytics.Param.PRICE, product.getPrice());
+        if (quantity != NO_QUANTITY) {
+            item.putLong(FirebaseAnalytics.Param.QUANTITY, quantity);
+        }
+        return item;
+    }
+
+    /**
+     * Returns the memoized items of a product, starting over if the product was
+     * replaced by a different instance, e.g. after the catalog was reloaded.
+     */
+    private ProductItems getProductItems(Product product) {
+        ProductItems items = productItems.get(product.getId());
+        if (items == null || items.product != product) {
+            items = new ProductItems(product);
+            productItems.put(product.getId(), items);
+        }
+        return items;
+    }
+}
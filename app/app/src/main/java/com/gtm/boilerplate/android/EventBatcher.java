@@ -0,0 +1,200 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces bursts of cart events before they reach the {@link EventDispatcher}.
+ * Repeated add_to_cart or remove_from_cart events for the same item within the batching
+ * window become a single event carrying the summed quantity, so rapid taps send one hit
+ * upstream instead of one per tap. Pending events are flushed when the window closes,
+ * and whenever an activity pauses. All methods must be called on the main thread.
+ */
+public class EventBatcher {
+    // Default time a burst is collected for, measured from its first event.
+    public static final long DEFAULT_WINDOW_MILLIS = 1000;
+
+    // The single instance of the batcher.
+    private static EventBatcher instance;
+
+    private final EventDispatcher eventDispatcher;
+    private final Handler mainHandler;
+    private final Runnable flushRunnable = this::flush;
+    // Pending events in arrival order, keyed by event name and item ID.
+    private final Map<String, PendingEvent> pendingEvents = new LinkedHashMap<>();
+    private long windowMillis = DEFAULT_WINDOW_MILLIS;
+
+    // Batching metrics.
+    private long receivedCount;
+    private long coalescedCount;
+
+    /**
+     * A coalesced cart event waiting for the window to close.
+     */
+    private static class PendingEvent {
+        final String eventName;
+        final Product product;
+        int quantity;
+
+        PendingEvent(String eventName, Product product) {
+            this.eventName = eventName;
+            this.product = product;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     *
+     * @param eventDispatcher The dispatcher receiving the coalesced events.
+     */
+    private EventBatcher(EventDispatcher eventDispatcher) {
+        this.eventDispatcher = eventDispatcher;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+
+        // Read on the main thread, like the rest of the batcher's state.
+        Metrics metrics = Metrics.getInstance();
+        metrics.gauge("batcher.pending", this::getPendingCount);
+        metrics.gauge("batcher.received", this::getReceivedCount);
+        metrics.gauge("batcher.coalesced", this::getCoalescedCount);
+    }
+
+    /**
+     * Provides a global point of access to the EventBatcher instance.
+     * Creates the instance if it doesn't exist yet (thread-safe).
+     *
+     * @param context Any context, only its application context is retained.
+     * @return The single instance of the EventBatcher.
+     */
+    public static synchronized EventBatcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new EventBatcher(EventDispatcher.getInstance(context));
+        }
+        return instance;
+    }
+
+    /**
+     * Sets how long bursts are collected for. A window of 0 disables coalescing and
+     * dispatches every event immediately.
+     *
+     * @param windowMillis The batching window in milliseconds.
+     */
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = Math.max(0, windowMillis);
+        if (this.windowMillis == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Records that units of a product were added to the cart.
+     *
+     * @param product The product added.
+     * @param quantity The number of units added.
+     */
+    public void addToCart(Product product, int quantity) {
+        enqueue(FirebaseAnalytics.Event.ADD_TO_CART, product, quantity);
+    }
+
+    /**
+     * Records that units of a product were removed from the cart.
+     *
+     * @param product The product removed.
+     * @param quantity The number of units removed.
+     */
+    public void removeFromCart(Product product, int quantity) {
+        enqueue(FirebaseAnalytics.Event.REMOVE_FROM_CART, product, quantity);
+    }
+
+    private void enqueue(String eventName, Product product, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        receivedCount++;
+        boolean burstStarted = pendingEvents.isEmpty();
+        String key = eventName + ':' + product.getId();
+        PendingEvent event = pendingEvents.get(key);
+        if (event == null) {
+            event = new PendingEvent(eventName, product);
+            pendingEvents.put(key, event);
+        } else {
+            coalescedCount++;
+        }
+        event.quantity += quantity;
+
+        if (windowMillis == 0) {
+            flush();
+        } else if (burstStarted) {
+            // First event of a new burst: close the window relative to it, so a steady
+            // stream of taps cannot hold events back indefinitely.
+            mainHandler.postDelayed(flushRunnable, windowMillis);
+        }
+    }
+
+    /**
+     * Dispatches all pending events now, e.g. before a purchase or when the app pauses.
+     */
+    public void flush() {
+        mainHandler.removeCallbacks(flushRunnable);
+        if (pendingEvents.isEmpty()) {
+            return;
+        }
+        List<PendingEvent> events = new ArrayList<>(pendingEvents.values());
+        pendingEvents.clear();
+        EcommercePayloadBuilder payloadBuilder = EcommercePayloadBuilder.getInstance();
+        for (PendingEvent event : events) {
+            Product product = event.product;
+            int quantity = event.quantity;
+            if (event.eventName.equals(FirebaseAnalytics.Event.ADD_TO_CART)) {
+                eventDispatcher.dispatch(event.eventName,
+                        () -> payloadBuilder.addToCart(product, quantity));
+            } else {
+                eventDispatcher.dispatch(event.eventName,
+                        () -> payloadBuilder.removeFromCart(product, quantity));
+            }
+        }
+    }
+
+    /**
+     * @return The number of cart events waiting for their window to close.
+     */
+    public int getPendingCount() {
+        return pendingEvents.size();
+    }
+
+    /**
+     * @return The number of cart events received.
+     */
+    public long getReceivedCount() {
+        return receivedCount;
+    }
+
+    /**
+     * @return The number of cart events merged into an earlier pending event.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+}
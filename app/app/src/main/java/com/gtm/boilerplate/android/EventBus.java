@@ -0,0 +1,214 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An in-process bus delivering typed events, such as each {@link EventRecord} captured
+ * by the event dispatcher, to any number of subscribers.
+ * <p>
+ * The bus only holds subscribers weakly, so it never keeps an Activity or its views
+ * alive. Subscribers tied to a lifecycle are kept by their owner and removed when it is
+ * destroyed; other subscribers must be kept by whoever registers them, e.g. in a field.
+ * Subscriptions are an array replaced on every change, so publishing is a lock-free
+ * walk over an immutable array and subscribers may come and go during delivery.
+ * Events are delivered on the publishing thread.
+ */
+public class EventBus {
+    private static final String TAG = "EventBus";
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final AtomicReference<Subscription[]> subscriptions = new AtomicReference<>(NO_SUBSCRIPTIONS);
+    private final AtomicLong publishedCount = new AtomicLong();
+
+    /**
+     * Receives events of one type.
+     */
+    public interface Subscriber<T> {
+        void onEvent(T event);
+    }
+
+    private static final class Subscription {
+        final Class<?> type;
+        final WeakReference<Subscriber<?>> subscriber;
+
+        Subscription(Class<?> type, Subscriber<?> subscriber) {
+            this.type = type;
+            this.subscriber = new WeakReference<>(subscriber);
+        }
+    }
+
+    /**
+     * Holds the single instance, created on first access by the class loader.
+     */
+    private static class Holder {
+        static final EventBus INSTANCE = new EventBus();
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     */
+    private EventBus() {
+    }
+
+    /**
+     * Provides a global point of access to the EventBus instance.
+     *
+     * @return The single instance of the EventBus.
+     */
+    public static EventBus getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Subscribes to events of a type and its subtypes. The bus holds the subscriber
+     * weakly: it stays subscribed only while the caller keeps a reference to it.
+     *
+     * @param type The type of events to receive.
+     * @param subscriber The subscriber.
+     */
+    public <T> void subscribe(Class<T> type, Subscriber<? super T> subscriber) {
+        Subscription subscription = new Subscription(type, subscriber);
+        while (true) {
+            Subscription[] current = subscriptions.get();
+            Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+            if (subscriptions.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Subscribes to events of a type for as long as a lifecycle owner, such as an
+     * Activity, is not destroyed. The owner keeps the subscriber alive, so it may
+     * capture the owner without leaking it. Must be called on the main thread.
+     *
+     * @param owner The owner the subscription is tied to.
+     * @param type The type of events to receive.
+     * @param subscriber The subscriber.
+     */
+    public <T> void subscribe(LifecycleOwner owner, Class<T> type, Subscriber<? super T> subscriber) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            return;
+        }
+        subscribe(type, subscriber);
+        lifecycle.addObserver(new DefaultLifecycleObserver() {
+            // Referenced from the owner's lifecycle, which is what keeps the subscriber alive.
+            private final Subscriber<? super T> heldSubscriber = subscriber;
+
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                unsubscribe(heldSubscriber);
+                lifecycle.removeObserver(this);
+            }
+        });
+    }
+
+    /**
+     * Removes a subscriber from all the types it subscribed to.
+     *
+     * @param subscriber The subscriber to remove.
+     */
+    public void unsubscribe(Subscriber<?> subscriber) {
+        removeIf(subscriber);
+    }
+
+    /**
+     * Delivers an event to every subscriber of its type, in the order they subscribed.
+     * A failing subscriber is logged and does not stop delivery to the others.
+     *
+     * @param event The event.
+     */
+    @SuppressWarnings("unchecked")
+    public void publish(Object event) {
+        publishedCount.incrementAndGet();
+        boolean collected = false;
+        for (Subscription subscription : subscriptions.get()) {
+            Subscriber<Object> subscriber = (Subscriber<Object>) subscription.subscriber.get();
+            if (subscriber == null) {
+                collected = true;
+            } else if (subscription.type.isInstance(event)) {
+                try {
+                    subscriber.onEvent(event);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Subscriber failed on " + event.getClass().getSimpleName(), e);
+                }
+            }
+        }
+        if (collected) {
+            removeIf(null);
+        }
+    }
+
+    /**
+     * Removes the subscriptions of a subscriber, and those whose subscriber was
+     * garbage collected.
+     *
+     * @param subscriber The subscriber to remove, or null to only remove collected ones.
+     */
+    private void removeIf(Subscriber<?> subscriber) {
+        while (true) {
+            Subscription[] current = subscriptions.get();
+            Subscription[] updated = new Subscription[current.length];
+            int count = 0;
+            for (Subscription subscription : current) {
+                Subscriber<?> candidate = subscription.subscriber.get();
+                if (candidate != null && candidate != subscriber) {
+                    updated[count++] = subscription;
+                }
+            }
+            if (count == current.length) {
+                return;
+            }
+            if (subscriptions.compareAndSet(current, count == 0 ? NO_SUBSCRIPTIONS : Arrays.copyOf(updated, count))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The number of live subscriptions.
+     */
+    public int getSubscriberCount() {
+        int count = 0;
+        for (Subscription subscription : subscriptions.get()) {
+            if (subscription.subscriber.get() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of events published.
+     */
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Process;
+
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatches analytics events off the main thread. Events are queued on a bounded
+ * queue and a single background worker builds the parameter Bundle, logs it to
+ * Firebase Analytics and captures it, publishing an {@link EventRecord} on the
+ * {@link EventBus} for the debug bottom sheet and other consumers. Purchases and
+ * refunds repeating a transaction that was already logged are dropped.
+ */
+public class EventDispatcher {
+    // Maximum number of events waiting for the worker before new ones are dropped.
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static final Metrics.Histogram BUILD_TIME = Metrics.getInstance().histogram("event.build");
+    private static final Metrics.Histogram LOG_TIME = Metrics.getInstance().histogram("event.log");
+    private static final Metrics.Histogram DISPATCH_LATENCY =
+            Metrics.getInstance().histogram("event.dispatch_latency");
+
+    // The single instance of the dispatcher.
+    private static EventDispatcher instance;
+
+    // Created on first use, normally after the first frame, or else on the worker thread.
+    private final AppStartup.Component<FirebaseAnalytics> firebaseAnalytics;
+    private final ThreadPoolExecutor executor;
+
+    // Dispatch metrics.
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Builds the parameters of an event. Called on the dispatcher's worker thread,
+     * so implementations must not touch views or state mutated by the UI.
+     */
+    public interface BundleFactory {
+        Bundle create();
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     *
+     * @param context The application context.
+     */
+    private EventDispatcher(Context context) {
+        firebaseAnalytics = MyApplication.firebaseAnalytics;
+        executor = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }, "analytics-dispatch");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> droppedCount.incrementAndGet());
+
+        Metrics metrics = Metrics.getInstance();
+        metrics.gauge("dispatcher.queue_depth", this::getQueueDepth);
+        metrics.gauge("dispatcher.dispatched", this::getDispatchedCount);
+        metrics.gauge("dispatcher.dropped", this::getDroppedCount);
+    }
+
+    /**
+     * Provides a global point of access to the EventDispatcher instance.
+     * Creates the instance if it doesn't exist yet (thread-safe).
+     *
+     * @param context Any context, only its application context is retained.
+     * @return The single instance of the EventDispatcher.
+     */
+    public static synchronized EventDispatcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new EventDispatcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Queues an event for asynchronous logging. If the queue is full the event is
+     * dropped and counted in {@link #getDroppedCount()}.
+     *
+     * @param eventName The name of the event.
+     * @param factory Builds the event parameters on the worker thread.
+     */
+    public void dispatch(String eventName, BundleFactory factory) {
+        long enqueuedAt = System.nanoTime();
+        executor.execute(() -> {
+            long buildStart = System.nanoTime();
+            Bundle params = factory.create();
+            BUILD_TIME.recordSince(buildStart);
+            if (!isDuplicateTransaction(eventName, params)) {
+                FirebaseAnalytics analytics = firebaseAnalytics.get();
+                if (analytics != null) {
+                    long logStart = System.nanoTime();
+                    analytics.logEvent(eventName, params);
+                    LOG_TIME.recordSince(logStart);
+                }
+                ToolbarAndBottomSheet.recordEvent(eventName, params);
+                recordLatency(System.nanoTime() - enqueuedAt);
+            }
+            // Logged now or before: the next checkout is a new order.
+            acknowledgePurchase(eventName, params);
+        });
+    }
+
+    /**
+     * Checks purchase and refund events against the transactions already logged.
+     * Called on the worker thread, where the deduplicator is created and saved.
+     *
+     * @param eventName The name of the event.
+     * @param params The event parameters.
+     * @return True if the event repeats a logged transaction and must be dropped.
+     */
+    private static boolean isDuplicateTransaction(String eventName, Bundle params) {
+        if (!eventName.equals(FirebaseAnalytics.Event.PURCHASE) && !eventName.equals(FirebaseAnalytics.Event.REFUND)) {
+            return false;
+        }
+        String transactionId = params.getString(FirebaseAnalytics.Param.TRANSACTION_ID);
+        PurchaseDeduplicator deduplicator = MyApplication.purchaseDeduplicator.get();
+        return transactionId != null && deduplicator != null && deduplicator.isDuplicate(eventName, transactionId);
+    }
+
+    /**
+     * Clears the pending order of a purchase event once it was logged.
+     *
+     * @param eventName The name of the event.
+     * @param params The event parameters.
+     */
+    private static void acknowledgePurchase(String eventName, Bundle params) {
+        if (!eventName.equals(FirebaseAnalytics.Event.PURCHASE)) {
+            return;
+        }
+        String transactionId = params.getString(FirebaseAnalytics.Param.TRANSACTION_ID);
+        PendingOrder pendingOrder = MyApplication.pendingOrder.get();
+        if (transactionId != null && pendingOrder != null) {
+            pendingOrder.acknowledge(transactionId);
+        }
+    }
+
+    /**
+     * Records the time between enqueueing an event and finishing its capture.
+     *
+     * @param latencyNanos The dispatch latency in nanoseconds.
+     */
+    private void recordLatency(long latencyNanos) {
+        DISPATCH_LATENCY.record(latencyNanos);
+        dispatchedCount.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+        long max = maxLatencyNanos.get();
+        while (latencyNanos > max && !maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+            max = maxLatencyNanos.get();
+        }
+    }
+
+    /**
+     * @return The number of events waiting to be processed.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return The number of events dropped because the queue was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return The number of events processed by the worker.
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * @return The mean enqueue-to-capture latency in milliseconds.
+     */
+    public double getAverageLatencyMillis() {
+        long count = dispatchedCount.get();
+        return count == 0 ? 0 : totalLatencyNanos.get() / (count * 1_000_000.0);
+    }
+
+    /**
+     * @return The largest enqueue-to-capture latency observed, in milliseconds.
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+}
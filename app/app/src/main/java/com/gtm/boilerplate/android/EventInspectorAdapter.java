@@ -0,0 +1,210 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.util.LruCache;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A RecyclerView adapter displaying the {@link EventLog} newest-first in the debug
+ * bottom sheet. Rows are recycled, new events are applied as incremental inserts,
+ * and events are pretty-printed only when their row is bound.
+ */
+public class EventInspectorAdapter extends RecyclerView.Adapter<EventInspectorAdapter.ViewHolder> {
+    // Number of pretty-printed events kept around for rows scrolling back into view.
+    private static final int PRETTY_JSON_CACHE_SIZE = 64;
+
+    // Time to bind a row, including pretty-printing its event on a cache miss.
+    private static final Metrics.Histogram BIND_TIME = Metrics.getInstance().histogram("inspector.bind");
+
+    private final EventLog eventLog;
+    private final LruCache<Long, String> prettyJsonCache = new LruCache<>(PRETTY_JSON_CACHE_SIZE);
+    private EventLog.Snapshot snapshot;
+    // Lower-cased event name filter, empty when all events are shown.
+    private String filter = "";
+    // Events matching the filter, oldest first so new matches are appended in O(1).
+    private final List<EventRecord> filteredRecords = new ArrayList<>();
+
+    /**
+     * Constructor for the EventInspectorAdapter.
+     *
+     * @param eventLog The log of events to display.
+     */
+    public EventInspectorAdapter(EventLog eventLog) {
+        this.eventLog = eventLog;
+        this.snapshot = eventLog.snapshot();
+        setHasStableIds(true);
+    }
+
+    /**
+     * Reloads the whole list from the log, e.g. when the bottom sheet is expanded.
+     */
+    public void refresh() {
+        snapshot = eventLog.snapshot();
+        rebuildFilteredRecords();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Applies events recorded since the last refresh as incremental inserts at the top
+     * of the list, removing rows for events the log has evicted.
+     */
+    public void onEventsAdded() {
+        EventLog.Snapshot previous = snapshot;
+        snapshot = eventLog.snapshot();
+        int added = (int) (snapshot.getNewestSequence() - previous.getNewestSequence());
+        if (added <= 0) {
+            return;
+        }
+
+        if (filter.isEmpty()) {
+            int inserted = Math.min(added, snapshot.size());
+            int evicted = previous.size() + inserted - snapshot.size();
+            notifyItemRangeInserted(0, inserted);
+            if (evicted > 0) {
+                notifyItemRangeRemoved(snapshot.size(), evicted);
+            }
+            return;
+        }
+
+        // Drop matches that have been evicted from the log, they are the oldest ones.
+        long oldestRetained = snapshot.getNewestSequence() - snapshot.size() + 1;
+        int evicted = 0;
+        while (evicted < filteredRecords.size()
+                && filteredRecords.get(evicted).getSequence() < oldestRetained) {
+            evicted++;
+        }
+        if (evicted > 0) {
+            filteredRecords.subList(0, evicted).clear();
+            notifyItemRangeRemoved(filteredRecords.size(), evicted);
+        }
+
+        int inserted = 0;
+        for (int position = Math.min(added, snapshot.size()) - 1; position >= 0; position--) {
+            EventRecord record = snapshot.get(position);
+            if (record != null && matchesFilter(record)) {
+                filteredRecords.add(record);
+                inserted++;
+            }
+        }
+        if (inserted > 0) {
+            notifyItemRangeInserted(0, inserted);
+        }
+    }
+
+    /**
+     * Shows only events whose name contains the given text, ignoring case.
+     *
+     * @param text The filter text, empty to show all events.
+     */
+    public void setFilter(String text) {
+        String newFilter = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (newFilter.equals(filter)) {
+            return;
+        }
+        filter = newFilter;
+        rebuildFilteredRecords();
+        notifyDataSetChanged();
+    }
+
+    private void rebuildFilteredRecords() {
+        filteredRecords.clear();
+        if (filter.isEmpty()) {
+            return;
+        }
+        for (int position = snapshot.size() - 1; position >= 0; position--) {
+            EventRecord record = snapshot.get(position);
+            if (record != null && matchesFilter(record)) {
+                filteredRecords.add(record);
+            }
+        }
+    }
+
+    private boolean matchesFilter(EventRecord record) {
+        return record.getEventName().toLowerCase(Locale.ROOT).contains(filter);
+    }
+
+    /**
+     * Returns the event shown at an adapter position.
+     *
+     * @param position The adapter position.
+     * @return The event, or null if it was overwritten in the log.
+     */
+    private EventRecord getRecord(int position) {
+        if (filter.isEmpty()) {
+            return snapshot.get(position);
+        }
+        return filteredRecords.get(filteredRecords.size() - 1 - position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return filter.isEmpty() ? snapshot.size() : filteredRecords.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        EventRecord record = getRecord(position);
+        return record != null ? record.getSequence() : RecyclerView.NO_ID;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.event_json_item, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        long start = System.nanoTime();
+        EventRecord record = getRecord(position);
+        if (record == null) {
+            holder.jsonTextView.setText("");
+            return;
+        }
+        String prettyJson = prettyJsonCache.get(record.getSequence());
+        if (prettyJson == null) {
+            prettyJson = EventJsonSerializer.pretty().reformat(record.getJson());
+            prettyJsonCache.put(record.getSequence(), prettyJson);
+        }
+        holder.jsonTextView.setText(prettyJson);
+        BIND_TIME.recordSince(start);
+    }
+
+    /**
+     * Caches the text view of an event row.
+     */
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView jsonTextView;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            jsonTextView = itemView.findViewById(R.id.event_json_item_textview);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collection;
+
+/**
+ * Serializes analytics events straight from their parameter {@link Bundle} into JSON.
+ * Each instance owns a reusable buffer and {@link JsonWriter}, so no intermediate
+ * JSON tree or per-call Gson instance is created.
+ */
+public class EventJsonSerializer {
+    // Shared instance producing indented output for the debug event preview.
+    private static final EventJsonSerializer PRETTY = new EventJsonSerializer(true);
+    // Shared instance producing single-line output for release builds.
+    private static final EventJsonSerializer COMPACT = new EventJsonSerializer(false);
+
+    private final StringWriter buffer;
+    private final boolean prettyPrint;
+    private JsonWriter writer;
+
+    /**
+     * Creates a serializer with its own output buffer.
+     *
+     * @param prettyPrint Whether the output should be indented.
+     */
+    public EventJsonSerializer(boolean prettyPrint) {
+        this.buffer = new StringWriter(512);
+        this.prettyPrint = prettyPrint;
+        this.writer = newWriter();
+    }
+
+    /**
+     * Creates the JsonWriter that is reused for every document written to the buffer.
+     *
+     * @return A new JsonWriter over the buffer.
+     */
+    private JsonWriter newWriter() {
+        JsonWriter jsonWriter = new JsonWriter(buffer);
+        // Lenient mode lets the same writer emit one top-level document per event.
+        jsonWriter.setLenient(true);
+        if (prettyPrint) {
+            jsonWriter.setIndent("  ");
+        }
+        return jsonWriter;
+    }
+
+    /**
+     * Returns the shared serializer for the current build type: indented output
+     * for debug builds, compact output otherwise.
+     *
+     * @return The shared serializer.
+     */
+    public static EventJsonSerializer getInstance() {
+        return BuildConfig.DEBUG ? PRETTY : COMPACT;
+    }
+
+    /**
+     * Returns the shared serializer producing indented output.
+     *
+     * @return The shared pretty-printing serializer.
+     */
+    public static EventJsonSerializer pretty() {
+        return PRETTY;
+    }
+
+    /**
+     * Returns the shared serializer producing single-line output.
+     *
+     * @return The shared compact serializer.
+     */
+    public static EventJsonSerializer compact() {
+        return COMPACT;
+    }
+
+    /**
+     * Converts an event name and its parameters into a JSON string of the form
+     * {@code {"event_name": ..., "params": {...}}}.
+     *
+     * @param eventName The name of the event.
+     * @param params The Bundle of event parameters, may be null.
+     * @return The JSON representation of the event.
+     */
+    public synchronized String toJson(String eventName, Bundle params) {
+        buffer.getBuffer().setLength(0);
+        boolean written = false;
+        try {
+            writer.beginObject();
+            writer.name("event_name").value(eventName);
+            writer.name("params");
+            writeBundle(params);
+            writer.endObject();
+            writer.flush();
+            written = true;
+        } catch (IOException e) {
+            // StringWriter never throws, so this can only be a programming error.
+            throw new IllegalStateException("Unable to serialize event " + eventName, e);
+        } finally {
+            if (!written) {
+                // The writer may be left inside an unfinished document, e.g. after a null
+                // key; replace it so the next event is not rejected as a nesting problem.
+                writer = newWriter();
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Re-emits an existing JSON document in this serializer's format, for example to
+     * pretty-print a compact event only when it is about to be displayed.
+     *
+     * @param json A JSON document.
+     * @return The reformatted document, or the input unchanged if it is not valid JSON.
+     */
+    public synchronized String reformat(String json) {
+        buffer.getBuffer().setLength(0);
+        try {
+            JsonReader reader = new JsonReader(new StringReader(json));
+            copy(reader);
+            writer.flush();
+        } catch (IOException | IllegalStateException e) {
+            // The writer may be left inside an unfinished document, so replace it.
+            writer = newWriter();
+            return json;
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Streams one JSON value from a reader to this serializer's writer, token by token.
+     *
+     * @param reader The reader positioned before the value.
+     */
+    private void copy(JsonReader reader) throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = reader.peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    writer.beginObject();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    writer.endObject();
+                    depth--;
+                    break;
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    writer.beginArray();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    writer.endArray();
+                    depth--;
+                    break;
+                case NAME:
+                    writer.name(reader.nextName());
+                    break;
+                case STRING:
+                    writer.value(reader.nextString());
+                    break;
+                case NUMBER:
+                    // Keep the literal as written rather than round-tripping through double.
+                    writer.jsonValue(reader.nextString());
+                    break;
+                case BOOLEAN:
+                    writer.value(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    writer.nullValue();
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected token " + token);
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Writes a Bundle as a JSON object, recursing into nested bundles and lists.
+     *
+     * @param bundle The Bundle to write, may be null.
+     */
+    private void writeBundle(Bundle bundle) throws IOException {
+        writer.beginObject();
+        if (bundle != null) {
+            for (String key : bundle.keySet()) {
+                writer.name(key);
+                writeValue(bundle.get(key));
+            }
+        }
+        writer.endObject();
+    }
+
+    /**
+     * Writes a single Bundle value using the closest matching JSON type.
+     *
+     * @param value The value to write.
+     */
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof String) {
+            writer.value((String) value);
+        } else if (value instanceof Boolean) {
+            writer.value((Boolean) value);
+        } else if (value instanceof Number) {
+            writer.value((Number) value);
+        } else if (value instanceof Bundle) {
+            writeBundle((Bundle) value);
+        } else if (value instanceof Collection) {
+            // Item arrays (ArrayList<Bundle>) are written as real JSON arrays.
+            writer.beginArray();
+            for (Object element : (Collection<?>) value) {
+                writeValue(element);
+            }
+            writer.endArray();
+        } else if (value instanceof Object[]) {
+            writer.beginArray();
+            for (Object element : (Object[]) value) {
+                writeValue(element);
+            }
+            writer.endArray();
+        } else if (value instanceof long[]) {
+            writer.beginArray();
+            for (long element : (long[]) value) {
+                writer.value(element);
+            }
+            writer.endArray();
+        } else if (value instanceof int[]) {
+            writer.beginArray();
+            for (int element : (int[]) value) {
+                writer.value(element);
+            }
+            writer.endArray();
+        } else if (value instanceof double[]) {
+            writer.beginArray();
+            for (double element : (double[]) value) {
+                writer.value(element);
+            }
+            writer.endArray();
+        } else {
+            writer.value(String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-capacity, lock-free ring buffer of tracked events. Inserting is O(1) and
+ * once the log is full each new event overwrites the oldest one. Readers iterate
+ * newest-first over a {@link Snapshot} without copying the buffer.
+ */
+public class EventLog implements Iterable<EventRecord> {
+    private final int capacity;
+    private final AtomicReferenceArray<EventRecord> slots;
+    // Sequence number that will be assigned to the next recorded event.
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * Creates an empty log.
+     *
+     * @param capacity The maximum number of events retained.
+     */
+    public EventLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Records an event, evicting the oldest one if the log is full.
+     * Safe to call from any thread.
+     *
+     * @param eventName The name of the event.
+     * @param json The JSON representation of the event.
+     * @return The record that was stored.
+     */
+    public EventRecord add(String eventName, String json) {
+        long sequence = nextSequence.getAndIncrement();
+        EventRecord record = new EventRecord(sequence, System.currentTimeMillis(), eventName, json);
+        int index = indexOf(sequence);
+        EventRecord current;
+        do {
+            current = slots.get(index);
+            // A writer that lapped this one already stored a newer event in the slot.
+            if (current != null && current.getSequence() > sequence) {
+                return record;
+            }
+        } while (!slots.compareAndSet(index, current, record));
+        return record;
+    }
+
+    /**
+     * @return The maximum number of events retained.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The total number of events recorded since the log was created.
+     */
+    public long getTotalCount() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Captures the current extent of the log for newest-first reading.
+     *
+     * @return A snapshot of the log.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(nextSequence.get() - 1);
+    }
+
+    /**
+     * Iterates the retained events newest-first.
+     *
+     * @return An iterator over a fresh snapshot.
+     */
+    @Override
+    public Iterator<EventRecord> iterator() {
+        return snapshot().iterator();
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    /**
+     * A view of the log as of the moment it was taken. Reading does not copy the
+     * buffer; events overwritten after the snapshot was taken are skipped.
+     */
+    public class Snapshot implements Iterable<EventRecord> {
+        private final long newestSequence;
+        private final int size;
+
+        private Snapshot(long newestSequence) {
+            this.newestSequence = newestSequence;
+            this.size = (int) Math.min(newestSequence + 1, capacity);
+        }
+
+        /**
+         * @return The number of positions in the snapshot.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return The sequence number of the newest event in the snapshot, or -1 if empty.
+         */
+        public long getNewestSequence() {
+            return newestSequence;
+        }
+
+        /**
+         * Returns the event at a position, 0 being the newest.
+         *
+         * @param position The position in the snapshot.
+         * @return The event, or null if it has been overwritten or is not yet published.
+         */
+        public EventRecord get(int position) {
+            if (position < 0 || position >= size) {
+                throw new IndexOutOfBoundsException("position " + position + ", size " + size);
+            }
+            long sequence = newestSequence - position;
+            EventRecord record = slots.get(indexOf(sequence));
+            return record != null && record.getSequence() == sequence ? record : null;
+        }
+
+        @Override
+        public Iterator<EventRecord> iterator() {
+            return new Iterator<EventRecord>() {
+                private int position;
+                private EventRecord next = advance();
+
+                private EventRecord advance() {
+                    while (position < size) {
+                        EventRecord record = get(position++);
+                        if (record != null) {
+                            return record;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public EventRecord next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    EventRecord record = next;
+                    next = advance();
+                    return record;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,596 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * A durable outbox of tracked events for our own transports, stored as an append-only
+ * log of memory-mapped segment files.
+ * <p>
+ * Events are appended from any thread and written behind on a background thread.
+ * Events queued while a batch is being written are written together and forced to
+ * disk once (group commit). A segment is rolled over to a new file once it is full.
+ * A sender reads events past its cursor with {@link #read(int)} and advances the
+ * persisted cursor with {@link #acknowledge(long)}; segments whose events are all
+ * acknowledged are deleted. Once most of the oldest segment is acknowledged, its
+ * unacknowledged tail is rewritten into a new segment file and the old file deleted
+ * (compaction), so acknowledged events stop taking disk space while a backlog drains.
+ * If unsent events exceed {@link #MAX_SEGMENTS} segments, the oldest segment is
+ * dropped, so disk use stays bounded when offline.
+ * <p>
+ * Segment layout: a header ({@code MAGIC}, format version) followed by records of
+ * {@code [int length][int crc32][payload]}, and zeros after the last record. Payloads
+ * are {@code [long sequence][long timestamp][short name length][name][json]} in UTF-8.
+ * On open every segment is scanned; the log ends at the first torn or corrupt record,
+ * and the tail after it is zeroed, so a crash mid-write loses at most the batch
+ * being written. A compacted segment is named after its first sequence and only
+ * renamed into place once complete; if a crash leaves the original next to it, the
+ * original is deleted on open.
+ */
+public class EventOutbox {
+    private static final int MAGIC = 0x4f424f58; // "OBOX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_OVERHEAD = 8;
+    private static final int PAYLOAD_FIXED_SIZE = 18;
+    // Size of each segment file.
+    public static final int SEGMENT_SIZE = 1024 * 1024;
+    // Maximum number of segments kept; the oldest unsent segment is dropped beyond it.
+    public static final int MAX_SEGMENTS = 8;
+    // Percentage of the used bytes of the oldest segment that must be acknowledged
+    // before its tail is compacted, so each byte is rewritten a bounded number of times.
+    private static final int COMPACTION_THRESHOLD_PERCENT = 50;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String COMPACTION_SUFFIX = ".tmp";
+    private static final String CURSOR_FILE_NAME = "cursor";
+
+    private final File directory;
+    private final ExecutorService writer;
+    private final LinkedBlockingQueue<EventRecord> pendingEvents = new LinkedBlockingQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Future<?> opened;
+
+    // Outbox metrics.
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong compactionCount = new AtomicLong();
+
+    // Only accessed on the writer thread.
+    // Segments by the sequence of their first event; the last one is being appended to.
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private long nextSequence;
+    // Sequence of the last acknowledged event, -1 if none.
+    private long cursor = -1;
+    private final CRC32 crc = new CRC32();
+    // Reused to assemble and checksum payloads before they are copied to a segment.
+    private byte[] scratch = new byte[1024];
+
+    /**
+     * A memory-mapped segment file.
+     */
+    private static class Segment {
+        final long baseSequence;
+        final File file;
+        final RandomAccessFile raf;
+        final MappedByteBuffer buffer;
+        // Sequence of the last event in the segment, baseSequence - 1 while empty.
+        long lastSequence;
+
+        Segment(long baseSequence, File file) throws IOException {
+            this.baseSequence = baseSequence;
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            if (raf.length() != SEGMENT_SIZE) {
+                raf.setLength(SEGMENT_SIZE);
+            }
+            this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            this.lastSequence = baseSequence - 1;
+        }
+
+        void close() {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                // The mapping stays valid until it is garbage collected.
+            }
+        }
+    }
+
+    /**
+     * Opens an outbox in a directory, recovering its segments in the background.
+     *
+     * @param directory The directory holding the segments and the cursor.
+     */
+    public EventOutbox(File directory) {
+        this.directory = directory;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.opened = writer.submit(this::open);
+    }
+
+    /**
+     * Queues an event for writing. Never blocks on disk I/O.
+     *
+     * @param timestampMillis The wall-clock time the event was recorded.
+     * @param eventName The name of the event.
+     * @param json The JSON representation of the event.
+     */
+    public void append(long timestampMillis, String eventName, String json) {
+        // The sequence is assigned by the writer thread.
+        pendingEvents.add(new EventRecord(-1, timestampMillis, eventName, json));
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.execute(() -> {
+                flushScheduled.set(false);
+                flushPending();
+            });
+        }
+    }
+
+    /**
+     * Reads events past the cursor, without advancing it. Blocks until pending events
+     * are written; never call it on the main thread.
+     *
+     * @param maxEvents The maximum number of events to return.
+     * @return The oldest unacknowledged events, oldest first.
+     */
+    public List<EventRecord> read(int maxEvents) throws Exception {
+        return writer.submit(() -> {
+            flushPending();
+            return readAfter(cursor, maxEvents);
+        }).get();
+    }
+
+    /**
+     * Advances the cursor past an event, e.g. once a sender delivered it, deletes
+     * segments that only hold acknowledged events and compacts the oldest segment if
+     * most of it is acknowledged. Blocks until the cursor is persisted; never call it
+     * on the main thread.
+     *
+     * @param sequence The sequence of the last delivered event.
+     */
+    public void acknowledge(long sequence) throws Exception {
+        writer.submit(() -> {
+            if (sequence > cursor) {
+                cursor = Math.min(sequence, nextSequence - 1);
+                writeCursor();
+                deleteAcknowledgedSegments();
+                compactOldestSegment();
+            }
+            return null;
+        }).get();
+    }
+
+    /**
+     * Waits for the outbox to be opened and all queued events to be written.
+     * Meant for tests and benchmarks; never call it on the main thread.
+     */
+    public void awaitIdle() throws Exception {
+        opened.get();
+        writer.submit(this::flushPending).get();
+    }
+
+    /**
+     * Writes the queued events and closes the segment files.
+     */
+    public void close() {
+        writer.execute(() -> {
+            flushPending();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+        });
+        writer.shutdown();
+    }
+
+    /**
+     * @return The number of events written to the outbox.
+     */
+    public long getAppendedCount() {
+        return appendedCount.get();
+    }
+
+    /**
+     * @return The number of events lost to size limits or write errors.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return The number of group commits, each forcing one batch of events to disk.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return The number of segments whose unacknowledged tail was rewritten to a new file.
+     */
+    public long getCompactionCount() {
+        return compactionCount.get();
+    }
+
+    /**
+     * Writes all queued events and forces them to disk once. Runs on the writer thread.
+     */
+    private void flushPending() {
+        List<EventRecord> batch = new ArrayList<>();
+        pendingEvents.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        Segment segment = null;
+        int written = 0;
+        try {
+            for (EventRecord event : batch) {
+                written++;
+                byte[] name = event.getEventName().getBytes(StandardCharsets.UTF_8);
+                byte[] json = event.getJson().getBytes(StandardCharsets.UTF_8);
+                int payloadLength = PAYLOAD_FIXED_SIZE + name.length + json.length;
+                if (name.length > Short.MAX_VALUE
+                        || HEADER_SIZE + RECORD_OVERHEAD + payloadLength > SEGMENT_SIZE) {
+                    droppedCount.incrementAndGet();
+                    continue;
+                }
+                Segment target = segmentWithRoom(RECORD_OVERHEAD + payloadLength);
+                if (segment != null && target != segment) {
+                    // Rolling over: make the sealed segment durable before moving on.
+                    segment.buffer.force();
+                }
+                segment = target;
+                writeRecord(segment, event.getTimestampMillis(), name, json, payloadLength);
+                appendedCount.incrementAndGet();
+            }
+            if (segment != null) {
+                segment.buffer.force();
+                batchCount.incrementAndGet();
+            }
+        } catch (IOException e) {
+            // Persistence is best effort; the events still reach the other transports.
+            droppedCount.addAndGet(batch.size() - written + 1);
+        }
+    }
+
+    private void writeRecord(Segment segment, long timestampMillis, byte[] name, byte[] json,
+            int payloadLength) {
+        long sequence = nextSequence++;
+        if (scratch.length < payloadLength) {
+            scratch = new byte[Math.max(payloadLength, scratch.length * 2)];
+        }
+        ByteBuffer payload = ByteBuffer.wrap(scratch, 0, payloadLength);
+        payload.putLong(sequence);
+        payload.putLong(timestampMillis);
+        payload.putShort((short) name.length);
+        payload.put(name);
+        payload.put(json);
+        crc.reset();
+        crc.update(scratch, 0, payloadLength);
+
+        // Write the payload before the length, so a record torn by a crash reads as
+        // the end of the log; the checksum catches pages that reached disk out of order.
+        MappedByteBuffer buffer = segment.buffer;
+        int recordStart = buffer.position();
+        buffer.position(recordStart + RECORD_OVERHEAD);
+        buffer.put(scratch, 0, payloadLength);
+        buffer.putInt(recordStart + 4, (int) crc.getValue());
+        buffer.putInt(recordStart, payloadLength);
+        segment.lastSequence = sequence;
+    }
+
+    /**
+     * Returns the segment to append a record to, rolling over to a new segment if the
+     * current one is full and dropping the oldest segment beyond the limit.
+     */
+    private Segment segmentWithRoom(int recordSize) throws IOException {
+        Segment current = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        // Keep 4 zero bytes after the last record to mark the end of the segment.
+        if (current != null && current.buffer.remaining() >= recordSize + 4) {
+            return current;
+        }
+        Segment segment = new Segment(nextSequence, segmentFile(nextSequence));
+        segment.buffer.putInt(MAGIC);
+        segment.buffer.putInt(FORMAT_VERSION);
+        segments.put(segment.baseSequence, segment);
+
+        while (segments.size() > MAX_SEGMENTS) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            long unsent = oldest.lastSequence - Math.max(cursor, oldest.baseSequence - 1);
+            if (unsent > 0) {
+                droppedCount.addAndGet(unsent);
+                cursor = oldest.lastSequence;
+                writeCursor();
+            }
+            deleteSegment(oldest);
+        }
+        return segment;
+    }
+
+    /**
+     * Reads the events following a sequence. Runs on the writer thread.
+     */
+    private List<EventRecord> readAfter(long sequence, int maxEvents) {
+        List<EventRecord> events = new ArrayList<>();
+        if (segments.isEmpty()) {
+            return events;
+        }
+        Long base = segments.floorKey(sequence + 1);
+        for (Segment segment : segments.tailMap(base != null ? base : segments.firstKey(), true).values()) {
+            int recordStart = HEADER_SIZE;
+            while (events.size() < maxEvents && recordStart + RECORD_OVERHEAD <= SEGMENT_SIZE) {
+                int length = segment.buffer.getInt(recordStart);
+                if (length <= 0) {
+                    break;
+                }
+                int payloadStart = recordStart + RECORD_OVERHEAD;
+                if (segment.buffer.getLong(payloadStart) > sequence) {
+                    events.add(decode(segment.buffer, payloadStart, length));
+                }
+                recordStart = payloadStart + length;
+            }
+            if (events.size() >= maxEvents) {
+                break;
+            }
+        }
+        return events;
+    }
+
+    private static EventRecord decode(MappedByteBuffer buffer, int payloadStart, int length) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(payloadStart);
+        long sequence = payload.getLong();
+        long timestampMillis = payload.getLong();
+        int nameLength = payload.getShort();
+        byte[] bytes = new byte[length - PAYLOAD_FIXED_SIZE];
+        payload.get(bytes);
+        String eventName = new String(bytes, 0, nameLength, StandardCharsets.UTF_8);
+        String json = new String(bytes, nameLength, bytes.length - nameLength, StandardCharsets.UTF_8);
+        return new EventRecord(sequence, timestampMillis, eventName, json);
+    }
+
+    /**
+     * Maps the existing segments, validates their records and restores the cursor.
+     * Runs on the writer thread before any event is written.
+     */
+    private void open() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return;
+        }
+        cursor = readCursor();
+        File[] leftovers = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX + COMPACTION_SUFFIX));
+        if (leftovers != null) {
+            // Compactions interrupted before the rename; the original segments are intact.
+            for (File leftover : leftovers) {
+                leftover.delete();
+            }
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        boolean ended = false;
+        for (File file : files) {
+            if (ended || file.length() != SEGMENT_SIZE) {
+                // Everything after the end of the log, or a segment cut short, is garbage.
+                file.delete();
+                continue;
+            }
+            try {
+                long base = Long.parseLong(file.getName().substring(0,
+                        file.getName().length() - SEGMENT_SUFFIX.length()));
+                Segment segment = new Segment(base, file);
+                if (!segments.isEmpty() && base > segments.lastKey() && base < nextSequence
+                        && segment.buffer.getInt(0) == MAGIC) {
+                    // The compacted tail of the previous segment, whose deletion was cut
+                    // short by a crash; the complete copy replaces it.
+                    deleteSegment(segments.pollLastEntry().getValue());
+                    nextSequence = base;
+                }
+                // Segments must continue the sequence of the previous one.
+                if (segment.buffer.getInt() != MAGIC || segment.buffer.getInt() != FORMAT_VERSION
+                        || (!segments.isEmpty() && base != nextSequence)) {
+                    segment.close();
+                    file.delete();
+                    ended = !segments.isEmpty();
+                    continue;
+                }
+                segments.put(base, segment);
+                ended = !recover(segment);
+                nextSequence = segment.lastSequence + 1;
+            } catch (IOException | NumberFormatException e) {
+                file.delete();
+                ended = !segments.isEmpty();
+            }
+        }
+        deleteAcknowledgedSegments();
+        // Never reuse the sequence of an acknowledged event, even if its segment is gone.
+        nextSequence = Math.max(nextSequence, cursor + 1);
+    }
+
+    /**
+     * Scans the records of a segment, leaving its buffer positioned after the last valid
+     * one and zeroing anything after it.
+     *
+     * @return Whether the segment ended cleanly; false if a corrupt record was cut off.
+     */
+    private boolean recover(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        long expectedSequence = segment.baseSequence;
+        boolean clean = true;
+        while (buffer.remaining() >= RECORD_OVERHEAD) {
+            int recordStart = buffer.position();
+            int length = buffer.getInt(recordStart);
+            if (length == 0) {
+                break;
+            }
+            int checksum = buffer.getInt(recordStart + 4);
+            int payloadStart = recordStart + RECORD_OVERHEAD;
+            if (length < PAYLOAD_FIXED_SIZE || length > SEGMENT_SIZE - payloadStart
+                    || buffer.getLong(payloadStart) != expectedSequence) {
+                clean = false;
+                break;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(payloadStart);
+            payload.get(scratch, 0, length);
+            crc.reset();
+            crc.update(scratch, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                clean = false;
+                break;
+            }
+            buffer.position(payloadStart + length);
+            segment.lastSequence = expectedSequence++;
+        }
+        if (!clean) {
+            ByteBuffer tail = buffer.duplicate();
+            tail.put(new byte[tail.remaining()]);
+            buffer.force();
+        }
+        return clean;
+    }
+
+    /**
+     * Deletes segments whose events have all been acknowledged, always keeping the
+     * segment being appended to.
+     */
+    private void deleteAcknowledgedSegments() {
+        while (segments.size() > 1 && segments.firstEntry().getValue().lastSequence <= cursor) {
+            deleteSegment(segments.pollFirstEntry().getValue());
+        }
+    }
+
+    /**
+     * Rewrites the unacknowledged records of the oldest segment into a new segment file,
+     * once at least {@link #COMPACTION_THRESHOLD_PERCENT} of its bytes are acknowledged.
+     * The segment being appended to is never compacted. Records are copied as they are,
+     * sequences and checksums included. Runs on the writer thread.
+     */
+    private void compactOldestSegment() {
+        if (segments.size() < 2) {
+            return;
+        }
+        Segment oldest = segments.firstEntry().getValue();
+        int end = oldest.buffer.position();
+        int tailStart = HEADER_SIZE;
+        while (tailStart < end && oldest.buffer.getLong(tailStart + RECORD_OVERHEAD) <= cursor) {
+            tailStart += RECORD_OVERHEAD + oldest.buffer.getInt(tailStart);
+        }
+        if (tailStart >= end
+                || (long) (tailStart - HEADER_SIZE) * 100 < (long) (end - HEADER_SIZE) * COMPACTION_THRESHOLD_PERCENT) {
+            return;
+        }
+        long base = oldest.buffer.getLong(tailStart + RECORD_OVERHEAD);
+        File file = segmentFile(base);
+        File tmp = new File(directory, file.getName() + COMPACTION_SUFFIX);
+        ByteBuffer tail = oldest.buffer.duplicate();
+        tail.limit(end);
+        tail.position(tailStart);
+        try {
+            Segment copy = new Segment(base, tmp);
+            copy.buffer.putInt(MAGIC);
+            copy.buffer.putInt(FORMAT_VERSION);
+            copy.buffer.put(tail);
+            copy.buffer.force();
+            copy.close();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                return;
+            }
+            Segment compacted = new Segment(base, file);
+            compacted.buffer.position(HEADER_SIZE + end - tailStart);
+            compacted.lastSequence = oldest.lastSequence;
+            segments.pollFirstEntry();
+            deleteSegment(oldest);
+            segments.put(base, compacted);
+            compactionCount.incrementAndGet();
+        } catch (IOException e) {
+            // Compaction only saves space; the original segment is still complete.
+            tmp.delete();
+        }
+    }
+
+    private static void deleteSegment(Segment segment) {
+        segment.close();
+        segment.file.delete();
+    }
+
+    private File segmentFile(long baseSequence) {
+        // Zero-padded, so sorting the names sorts the segments.
+        return new File(directory, String.format(Locale.ROOT, "%020d", baseSequence) + SEGMENT_SUFFIX);
+    }
+
+    private long readCursor() {
+        File file = new File(directory, CURSOR_FILE_NAME);
+        try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            long value = input.readLong();
+            // The value is stored twice; a mismatch means a torn write.
+            return input.readLong() == value ? value : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Persists the cursor by writing a new file and renaming it over the old one.
+     */
+    private void writeCursor() {
+        File file = new File(directory, CURSOR_FILE_NAME);
+        File tmp = new File(directory, CURSOR_FILE_NAME + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(tmp)) {
+            DataOutputStream data = new DataOutputStream(output);
+            data.writeLong(cursor);
+            data.writeLong(cursor);
+            data.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            return;
+        }
+        tmp.renameTo(file);
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+/**
+ * An immutable entry of the {@link EventLog}: a tracked analytics event and its JSON.
+ */
+public class EventRecord {
+    private final long sequence;
+    private final long timestampMillis;
+    private final String eventName;
+    private final String json;
+
+    /**
+     * Constructs a new EventRecord.
+     *
+     * @param sequence The position of the event in the log, starting at 0.
+     * @param timestampMillis The wall-clock time the event was recorded.
+     * @param eventName The name of the event.
+     * @param json The JSON representation of the event.
+     */
+    public EventRecord(long sequence, long timestampMillis, String eventName, String json) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.eventName = eventName;
+        this.json = json;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public String getJson() {
+        return json;
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads drawable images into ImageViews, decoded off the main thread and downsampled to
+ * the size of the view. Decoded bitmaps are kept in an LRU bounded by memory use, so
+ * scrolling back to a product never decodes its image again.
+ */
+public class ImageLoader {
+    // Number of threads decoding images in parallel.
+    private static final int DECODER_THREADS = 2;
+
+    // The single instance of the loader.
+    private static ImageLoader instance;
+
+    private final Resources resources;
+    private final LruCache<String, Bitmap> bitmapCache;
+    private final ExecutorService decoder;
+    private final Handler mainHandler;
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     *
+     * @param context The application context, whose resources drawables are decoded from.
+     */
+    private ImageLoader(Context context) {
+        this.resources = context.getResources();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.decoder = Executors.newFixedThreadPool(DECODER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "image-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Use an eighth of the heap for bitmaps, measured in kilobytes.
+        int cacheSizeKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        this.bitmapCache = new LruCache<String, Bitmap>(cacheSizeKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+    }
+
+    /**
+     * Provides a global point of access to the ImageLoader instance.
+     * Creates the instance if it doesn't exist yet (thread-safe).
+     *
+     * @param context Any context, only its application context is retained.
+     * @return The single instance of the ImageLoader.
+     */
+    public static synchronized ImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Displays a drawable in an ImageView. Cached bitmaps are set immediately; otherwise
+     * the view is cleared and the bitmap is set once decoded, unless the view has been
+     * rebound to another image in the meantime.
+     *
+     * @param imageView The view to display the image in.
+     * @param imageResource The drawable resource ID.
+     */
+    public void load(ImageView imageView, int imageResource) {
+        int width = targetSize(imageView.getLayoutParams() != null ? imageView.getLayoutParams().width : 0,
+                imageView.getWidth());
+        int height = targetSize(imageView.getLayoutParams() != null ? imageView.getLayoutParams().height : 0,
+                imageView.getHeight());
+        String key = imageResource + "@" + width + "x" + height;
+
+        Bitmap cached = bitmapCache.get(key);
+        imageView.setTag(R.id.image_loader_key, key);
+        if (cached != null) {
+            imageView.setImageBitmap(cached);
+            return;
+        }
+
+        imageView.setImageDrawable(null);
+        decoder.execute(() -> {
+            Bitmap bitmap = decodeSampled(imageResource, width, height);
+            if (bitmap == null) {
+                return;
+            }
+            bitmapCache.put(key, bitmap);
+            mainHandler.post(() -> {
+                // The view may have been recycled for another product while decoding.
+                if (key.equals(imageView.getTag(R.id.image_loader_key))) {
+                    imageView.setImageBitmap(bitmap);
+                }
+            });
+        });
+    }
+
+    /**
+     * Picks the size to decode for, preferring the fixed layout size of the view.
+     *
+     * @param layoutSize The width or height from the layout params.
+     * @param measuredSize The current width or height of the view.
+     * @return The size in pixels, or 0 if it is not known yet.
+     */
+    private static int targetSize(int layoutSize, int measuredSize) {
+        if (layoutSize > 0) {
+            return layoutSize;
+        }
+        if (measuredSize > 0) {
+            return measuredSize;
+        }
+        return layoutSize == ViewGroup.LayoutParams.MATCH_PARENT
+                ? Resources.getSystem().getDisplayMetrics().widthPixels
+                : 0;
+    }
+
+    /**
+     * Decodes a drawable with the largest power-of-two subsampling that keeps it at
+     * least as large as the requested size.
+     *
+     * @param imageResource The drawable resource ID.
+     * @param reqWidth The requested width, 0 for no limit.
+     * @param reqHeight The requested height, 0 for no limit.
+     * @return The decoded bitmap, or null if the resource is not a bitmap.
+     */
+    private Bitmap decodeSampled(int imageResource, int reqWidth, int reqHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, imageResource, options);
+
+        int inSampleSize = 1;
+        if (reqWidth > 0 && reqHeight > 0) {
+            int halfWidth = options.outWidth / 2;
+            int halfHeight = options.outHeight / 2;
+            while (halfWidth / inSampleSize >= reqWidth && halfHeight / inSampleSize >= reqHeight) {
+                inSampleSize *= 2;
+            }
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = inSampleSize;
+        return BitmapFactory.decodeResource(resources, imageResource, options);
+    }
+}
@@ -0,0 +1,407 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sends the events of the {@link EventOutbox} straight to the {@code /g/collect} endpoint
+ * of a server-side GTM container, as GA4 Measurement Protocol hits, independently of the
+ * Firebase SDK.
+ * <p>
+ * Several hits are sent per request: the parameters shared by all hits ({@code v},
+ * {@code tid}, {@code cid}) go in the query string and each hit is one line of the body,
+ * which is gzipped. Connections are kept alive and reused between requests. Events are
+ * only acknowledged in the outbox once the container accepted them; failed requests are
+ * retried with exponential backoff and jitter, so nothing is lost while offline.
+ */
+public class MeasurementProtocolSender {
+    // Maximum number of hits sent in one request.
+    public static final int MAX_HITS_PER_REQUEST = 20;
+    // Time between two drains of the outbox when there is nothing to retry.
+    private static final long DRAIN_INTERVAL_MILLIS = 5_000;
+    private static final long INITIAL_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 5 * 60_000;
+    // A new session starts after this much time without events.
+    private static final long SESSION_TIMEOUT_MILLIS = 30 * 60_000;
+    private static final int TIMEOUT_MILLIS = 15_000;
+
+    private final URL collectUrl;
+    private final EventOutbox outbox;
+    private final ScheduledExecutorService executor;
+
+    // Sender metrics.
+    private final AtomicLong sentHitCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failedRequestCount = new AtomicLong();
+    private final AtomicLong rejectedHitCount = new AtomicLong();
+
+    // Only accessed on the sender thread.
+    private long backoffMillis;
+    private long sessionId;
+    private long lastEventMillis;
+    private final StringBuilder body = new StringBuilder();
+    private final StringBuilder hit = new StringBuilder();
+
+    /**
+     * Creates a sender. Nothing is sent until {@link #start()} is called.
+     *
+     * @param endpoint The {@code /g/collect} URL of the server container.
+     * @param measurementId The GA4 measurement ID, sent as {@code tid}.
+     * @param clientId The ID of this app instance, sent as {@code cid}.
+     * @param outbox The outbox to drain.
+     */
+    public MeasurementProtocolSender(String endpoint, String measurementId, String clientId,
+            EventOutbox outbox) throws IOException {
+        this.collectUrl = new URL(endpoint + (endpoint.contains("?") ? "&" : "?")
+                + "v=2&tid=" + encode(measurementId) + "&cid=" + encode(clientId));
+        this.outbox = outbox;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mp-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts draining the outbox in the background.
+     */
+    public void start() {
+        executor.execute(this::drain);
+    }
+
+    /**
+     * Stops sending. Events not sent yet stay in the outbox.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sends batches until the outbox is empty or a request fails, then schedules the
+     * next drain. Runs on the sender thread.
+     */
+    private void drain() {
+        long delayMillis = DRAIN_INTERVAL_MILLIS;
+        try {
+            List<EventRecord> events;
+            while (!(events = outbox.read(MAX_HITS_PER_REQUEST)).isEmpty()) {
+                // Session state advances with the hits; roll it back if they are retried.
+                long batchSessionId = sessionId;
+                long batchLastEventMillis = lastEventMillis;
+                long lastSequence = events.get(events.size() - 1).getSequence();
+                int hitCount = appendHits(events);
+                if (hitCount == 0) {
+                    // Nothing in the batch could be converted; don't send an empty request.
+                    outbox.acknowledge(lastSequence);
+                    continue;
+                }
+                int status;
+                try {
+                    status = send();
+                } catch (IOException e) {
+                    sessionId = batchSessionId;
+                    lastEventMillis = batchLastEventMillis;
+                    throw e;
+                }
+                if (status >= 500 || status == 429) {
+                    sessionId = batchSessionId;
+                    lastEventMillis = batchLastEventMillis;
+                    delayMillis = nextBackoff();
+                    break;
+                }
+                if (status >= 400) {
+                    // The container will never accept these hits; don't retry them forever.
+                    rejectedHitCount.addAndGet(hitCount);
+                } else {
+                    sentHitCount.addAndGet(hitCount);
+                }
+                backoffMillis = 0;
+                outbox.acknowledge(lastSequence);
+            }
+        } catch (IOException e) {
+            // Offline or the container is unreachable; try again later.
+            failedRequestCount.incrementAndGet();
+            delayMillis = nextBackoff();
+        } catch (InterruptedException e) {
+            return;
+        } catch (Exception e) {
+            delayMillis = nextBackoff();
+        }
+        if (!executor.isShutdown()) {
+            executor.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private long nextBackoff() {
+        backoffMillis = backoffMillis == 0
+                ? INITIAL_BACKOFF_MILLIS
+                : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        // Randomize half of the delay, so devices coming back online don't retry in lockstep.
+        return backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+    }
+
+    /**
+     * Converts a batch of events to the body of a request, one hit per line. An event
+     * that can't be converted, e.g. because its JSON holds a non-finite number, would
+     * fail the same way on every retry, so it is counted as rejected and left out.
+     *
+     * @param events The events to convert.
+     * @return The number of hits in the body.
+     */
+    private int appendHits(List<EventRecord> events) {
+        body.setLength(0);
+        int hitCount = 0;
+        for (EventRecord event : events) {
+            long eventSessionId = sessionId;
+            long eventLastEventMillis = lastEventMillis;
+            String line;
+            try {
+                line = toHit(event);
+            } catch (IOException | RuntimeException e) {
+                sessionId = eventSessionId;
+                lastEventMillis = eventLastEventMillis;
+                rejectedHitCount.incrementAndGet();
+                continue;
+            }
+            if (body.length() > 0) {
+                body.append('\n');
+            }
+            body.append(line);
+            hitCount++;
+        }
+        return hitCount;
+    }
+
+    /**
+     * Sends the hits in the body as one request.
+     *
+     * @return The HTTP status code of the response.
+     */
+    private int send() throws IOException {
+        byte[] compressed = gzip(body.toString().getBytes(StandardCharsets.UTF_8));
+
+        requestCount.incrementAndGet();
+        HttpURLConnection connection = (HttpURLConnection) collectUrl.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(compressed.length);
+            connection.setRequestProperty("Content-Type", "text/plain;charset=UTF-8");
+            connection.setRequestProperty("Content-Encoding", "gzip");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(compressed);
+            }
+            int status = connection.getResponseCode();
+            // Read the response to the end, so the connection goes back to the keep-alive pool.
+            InputStream input = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (input != null) {
+                try (InputStream in = input) {
+                    byte[] discard = new byte[512];
+                    while (in.read(discard) != -1) {
+                        // Drain.
+                    }
+                }
+            }
+            if (status >= 500 || status == 429) {
+                failedRequestCount.incrementAndGet();
+            }
+            return status;
+        } catch (IOException e) {
+            // Don't return a broken connection to the pool.
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    /**
+     * Converts a captured event to the body line of a {@code /g/collect} request.
+     * String parameters become {@code ep.*}, numbers {@code epn.*}, the currency
+     * {@code cu} and the items {@code pr1}..{@code prN}.
+     *
+     * @param event The event, as captured by the EventJsonSerializer.
+     * @return The URL-encoded hit parameters.
+     */
+    private String toHit(EventRecord event) throws IOException {
+        long timestamp = event.getTimestampMillis();
+        boolean sessionStart = sessionId == 0 || timestamp - lastEventMillis > SESSION_TIMEOUT_MILLIS;
+        if (sessionStart) {
+            sessionId = timestamp / 1000;
+        }
+        long engagementMillis = sessionStart ? 1 : Math.max(1, timestamp - lastEventMillis);
+        lastEventMillis = timestamp;
+
+        hit.setLength(0);
+        hit.append("en=").append(encode(event.getEventName()));
+        hit.append("&sid=").append(sessionId);
+        hit.append("&seg=1");
+        if (sessionStart) {
+            hit.append("&_ss=1");
+        }
+        hit.append("&_et=").append(engagementMillis);
+
+        JsonReader reader = new JsonReader(new StringReader(event.getJson()));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("params") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                appendParams(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return hit.toString();
+    }
+
+    private void appendParams(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if (name.equals("items") && token == JsonToken.BEGIN_ARRAY) {
+                appendItems(reader);
+            } else if (name.equals("currency") && token == JsonToken.STRING) {
+                hit.append("&cu=").append(encode(reader.nextString()));
+            } else if (token == JsonToken.NUMBER) {
+                hit.append("&epn.").append(encode(name)).append('=').append(encode(reader.nextString()));
+            } else if (token == JsonToken.STRING || token == JsonToken.BOOLEAN) {
+                String value = token == JsonToken.STRING ? reader.nextString() : String.valueOf(reader.nextBoolean());
+                hit.append("&ep.").append(encode(name)).append('=').append(encode(value));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Appends the items of an event as {@code prN=id..~nm..~ca..~va..~pr..~qt..}.
+     */
+    private void appendItems(JsonReader reader) throws IOException {
+        StringBuilder item = new StringBuilder();
+        int index = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            item.setLength(0);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = itemKey(reader.nextName());
+                if (key == null || reader.peek() == JsonToken.NULL
+                        || reader.peek() == JsonToken.BEGIN_OBJECT || reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+                if (item.length() > 0) {
+                    item.append('~');
+                }
+                String value = reader.peek() == JsonToken.BOOLEAN
+                        ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+                // '~' separates the fields, so it cannot appear in a value.
+                item.append(key).append(value.replace('~', '-'));
+            }
+            reader.endObject();
+            hit.append("&pr").append(++index).append('=').append(encode(item.toString()));
+        }
+        reader.endArray();
+    }
+
+    private static String itemKey(String param) {
+        switch (param) {
+            case "item_id":
+                return "id";
+            case "item_name":
+                return "nm";
+            case "item_category":
+                return "ca";
+            case "item_variant":
+                return "va";
+            case "item_brand":
+                return "br";
+            case "price":
+                return "pr";
+            case "quantity":
+                return "qt";
+            default:
+                return null;
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String encode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    /**
+     * @return The number of hits accepted by the container.
+     */
+    public long getSentHitCount() {
+        return sentHitCount.get();
+    }
+
+    /**
+     * @return The number of requests sent, including failed ones.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The number of requests that failed and will be retried.
+     */
+    public long getFailedRequestCount() {
+        return failedRequestCount.get();
+    }
+
+    /**
+     * @return The number of hits the container rejected or that could not be converted,
+     *         which are not retried.
+     */
+    public long getRejectedHitCount() {
+        return rejectedHitCount.get();
+    }
+}
@@ -0,0 +1,405 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of counters, gauges and latency histograms for the app's hot paths, shown
+ * in the Metrics tab of the debug bottom sheet.
+ * Metrics are looked up by name once, typically into a static final field, and then
+ * recorded without allocating or locking, so they can stay in place on paths that run
+ * for every event, frame or cart change. Use {@link #snapshot()} to read them all at once.
+ */
+public class Metrics {
+    // Metrics by name, sorted so snapshots list related metrics together.
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    /**
+     * Holds the single instance, created on first access by the class loader.
+     */
+    private static class Holder {
+        static final Metrics INSTANCE = new Metrics();
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Provides a global point of access to the Metrics instance.
+     *
+     * @return The single instance of the Metrics registry.
+     */
+    public static Metrics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the counter with a name, creating it on first use.
+     *
+     * @param name The metric name, e.g. {@code event.serialized_bytes}.
+     * @return The counter.
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Registers a gauge, a value read only when a snapshot is taken. Registering a
+     * name again replaces the previous gauge.
+     *
+     * @param name The metric name, e.g. {@code dispatcher.queue_depth}.
+     * @param value Reads the current value; called on the thread taking the snapshot.
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Returns the latency histogram with a name, creating it on first use.
+     *
+     * @param name The metric name, e.g. {@code event.build}.
+     * @return The histogram.
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Reads every metric. Values recorded concurrently may or may not be included, but
+     * each histogram is internally consistent enough for display.
+     *
+     * @return The current values of all metrics.
+     */
+    public Snapshot snapshot() {
+        List<Snapshot.Value> counterValues = new ArrayList<>();
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            counterValues.add(new Snapshot.Value(entry.getKey(), entry.getValue().get()));
+        }
+        List<Snapshot.Value> gaugeValues = new ArrayList<>();
+        for (Map.Entry<String, LongSupplier> entry : gauges.entrySet()) {
+            gaugeValues.add(new Snapshot.Value(entry.getKey(), entry.getValue().getAsLong()));
+        }
+        List<Snapshot.Distribution> distributions = new ArrayList<>();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            distributions.add(entry.getValue().read(entry.getKey()));
+        }
+        return new Snapshot(System.currentTimeMillis(), counterValues, gaugeValues, distributions);
+    }
+
+    /**
+     * A monotonically increasing count.
+     */
+    public static final class Counter {
+        private final AtomicLong value = new AtomicLong();
+
+        private Counter() {
+        }
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+
+    /**
+     * A latency distribution in fixed power-of-two buckets of microseconds: bucket 0
+     * counts durations under 1 us and bucket i durations in [2^(i-1), 2^i) us, with the
+     * last bucket open-ended. That is coarse, but a percentile is never off by more
+     * than a factor of two, and recording is a few atomic adds.
+     */
+    public static final class Histogram {
+        // Bucket 26 starts at 2^25 us, about 33 seconds.
+        static final int BUCKET_COUNT = 27;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Histogram() {
+        }
+
+        /**
+         * Records a duration.
+         *
+         * @param nanos The duration in nanoseconds.
+         */
+        public void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            buckets.incrementAndGet(bucketOf(nanos / 1000));
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        /**
+         * Records the time elapsed since a start time.
+         *
+         * @param startNanos A value of {@link System#nanoTime()} taken before the operation.
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        static int bucketOf(long micros) {
+            return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+        }
+
+        Snapshot.Distribution read(String name) {
+            long[] counts = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new Snapshot.Distribution(name, count.get(), totalNanos.get(), maxNanos.get(), counts);
+        }
+    }
+
+    /**
+     * The values of all metrics at one point in time.
+     */
+    public static final class Snapshot {
+        private final long timestampMillis;
+        private final List<Value> counters;
+        private final List<Value> gauges;
+        private final List<Distribution> histograms;
+
+        Snapshot(long timestampMillis, List<Value> counters, List<Value> gauges,
+                 List<Distribution> histograms) {
+            this.timestampMillis = timestampMillis;
+            this.counters = Collections.unmodifiableList(counters);
+            this.gauges = Collections.unmodifiableList(gauges);
+            this.histograms = Collections.unmodifiableList(histograms);
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public List<Value> getCounters() {
+            return counters;
+        }
+
+        public List<Value> getGauges() {
+            return gauges;
+        }
+
+        public List<Distribution> getHistograms() {
+            return histograms;
+        }
+
+        /**
+         * Formats the snapshot as aligned text for the debug bottom sheet.
+         *
+         * @return One line per metric, histograms first.
+         */
+        public String format() {
+            StringBuilder text = new StringBuilder();
+            if (!histograms.isEmpty()) {
+                text.append(String.format(Locale.ROOT, "%-24s %7s %9s %9s %9s %9s%n",
+                        "latency (ms)", "count", "p50", "p90", "p99", "max"));
+                for (Distribution histogram : histograms) {
+                    text.append(String.format(Locale.ROOT, "%-24s %7d %9.3f %9.3f %9.3f %9.3f%n",
+                            histogram.getName(), histogram.getCount(),
+                            histogram.getPercentileMillis(50), histogram.getPercentileMillis(90),
+                            histogram.getPercentileMillis(99), histogram.getMaxMillis()));
+                }
+            }
+            appendValues(text, "counters", counters);
+            appendValues(text, "gauges", gauges);
+            return text.toString();
+        }
+
+        private static void appendValues(StringBuilder text, String title, List<Value> values) {
+            if (values.isEmpty()) {
+                return;
+            }
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(title).append('\n');
+            for (Value value : values) {
+                text.append(String.format(Locale.ROOT, "%-24s %9d%n", value.getName(), value.getValue()));
+            }
+        }
+
+        /**
+         * Serializes the snapshot for export, with the raw bucket counts of each histogram
+         * so distributions from several runs can be merged or compared offline.
+         *
+         * @return The snapshot as a JSON object.
+         */
+        public String toJson() {
+            StringWriter json = new StringWriter();
+            try (JsonWriter writer = new JsonWriter(json)) {
+                writer.setIndent("  ");
+                writer.beginObject();
+                writer.name("timestamp_millis").value(timestampMillis);
+                writer.name("counters").beginObject();
+                for (Value value : counters) {
+                    writer.name(value.getName()).value(value.getValue());
+                }
+                writer.endObject();
+                writer.name("gauges").beginObject();
+                for (Value value : gauges) {
+                    writer.name(value.getName()).value(value.getValue());
+                }
+                writer.endObject();
+                writer.name("histograms").beginObject();
+                for (Distribution histogram : histograms) {
+                    writer.name(histogram.getName()).beginObject();
+                    writer.name("count").value(histogram.getCount());
+                    writer.name("total_nanos").value(histogram.getTotalNanos());
+                    writer.name("max_nanos").value(histogram.getMaxNanos());
+                    writer.name("p50_millis").value(histogram.getPercentileMillis(50));
+                    writer.name("p90_millis").value(histogram.getPercentileMillis(90));
+                    writer.name("p99_millis").value(histogram.getPercentileMillis(99));
+                    // Bucket i counts durations below 2^i microseconds.
+                    writer.name("buckets").beginArray();
+                    for (long bucket : histogram.buckets) {
+                        writer.value(bucket);
+                    }
+                    writer.endArray();
+                    writer.endObject();
+                }
+                writer.endObject();
+                writer.endObject();
+            } catch (IOException e) {
+                // A StringWriter doesn't throw.
+                throw new IllegalStateException(e);
+            }
+            return json.toString();
+        }
+
+        /**
+         * The value of a counter or gauge.
+         */
+        public static final class Value {
+            private final String name;
+            private final long value;
+
+            Value(String name, long value) {
+                this.name = name;
+                this.value = value;
+            }
+
+            public String getName() {
+                return name;
+            }
+
+            public long getValue() {
+                return value;
+            }
+        }
+
+        /**
+         * The contents of a histogram.
+         */
+        public static final class Distribution {
+            private final String name;
+            private final long count;
+            private final long totalNanos;
+            private final long maxNanos;
+            private final long[] buckets;
+
+            Distribution(String name, long count, long totalNanos, long maxNanos, long[] buckets) {
+                this.name = name;
+                this.count = count;
+                this.totalNanos = totalNanos;
+                this.maxNanos = maxNanos;
+                this.buckets = buckets;
+            }
+
+            public String getName() {
+                return name;
+            }
+
+            public long getCount() {
+                return count;
+            }
+
+            public long getTotalNanos() {
+                return totalNanos;
+            }
+
+            public long getMaxNanos() {
+                return maxNanos;
+            }
+
+            public double getMaxMillis() {
+                return maxNanos / 1_000_000.0;
+            }
+
+            /**
+             * Estimates a percentile as the upper bound of the bucket it falls in, capped
+             * at the largest recorded duration.
+             *
+             * @param percentile The percentile, from 0 to 100.
+             * @return The estimate in milliseconds, 0 if nothing was recorded.
+             */
+            public double getPercentileMillis(double percentile) {
+                long total = 0;
+                for (long bucket : buckets) {
+                    total += bucket;
+                }
+                if (total == 0) {
+                    return 0;
+                }
+                long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+                long seen = 0;
+                for (int i = 0; i < buckets.length; i++) {
+                    seen += buckets[i];
+                    if (seen >= rank) {
+                        if (i == buckets.length - 1) {
+                            break;
+                        }
+                        return Math.min(1L << i, maxNanos / 1000.0) / 1000.0;
+                    }
+                }
+                return getMaxMillis();
+            }
+        }
+    }
+}
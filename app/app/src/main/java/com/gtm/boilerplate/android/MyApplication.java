@@ -16,22 +16,64 @@
 package com.soteria.firebaseapp.android;
 
 import android.app.Application;
-import java.util.List;
-import java.util.ArrayList;
+import android.content.SharedPreferences;
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.io.File;
+import java.util.UUID;
 
 /**
  * Custom Application class to hold global application state.
- * This is used to maintain a list of analytics events that can be displayed
+ * This is used to maintain a log of analytics events that can be displayed
  * across different activities.
  */
 public class MyApplication extends Application {
+    // Number of tracked events retained for display; older events are evicted.
+    public static final int EVENT_LOG_CAPACITY = 500;
+
+    // Name of the file the cart is journaled to, inside the app's private files directory.
+    private static final String CART_JOURNAL_FILE_NAME = "cart.journal";
+    // Name of the directory of the event outbox, inside the app's private files directory.
+    private static final String EVENT_OUTBOX_DIRECTORY_NAME = "event-outbox";
+    // Name of the directory of the logged transaction IDs, inside the app's private files directory.
+    private static final String PURCHASE_DEDUPLICATOR_DIRECTORY_NAME = "transactions";
+    // Name of the file of the order awaiting its purchase event, inside the app's private files directory.
+    private static final String PENDING_ORDER_FILE_NAME = "pending-order";
+    // Preferences holding the identity of this app instance.
+    private static final String INSTALL_PREFERENCES_NAME = "install";
+    private static final String CLIENT_ID_KEY = "client_id";
+    private static final String ORDER_NODE_ID_KEY = "order_node_id";
+
+    // Write-behind persistence of the cart.
+    private AppStartup.Component<CartJournal> cartJournal;
+
+    // Appends every captured event to the outbox. Kept here because the bus holds it weakly.
+    private EventBus.Subscriber<EventRecord> eventOutboxSubscriber;
+
+    // A static, bounded log holding JSON representations of tracked analytics events.
+    public static EventLog eventLog;
+
+    // Creates the components below and records how long each took.
+    public static AppStartup startup;
+
+    // The Firebase Analytics instance; its first getInstance() call is slow.
+    public static AppStartup.Component<FirebaseAnalytics> firebaseAnalytics;
 
-    // A static list to hold JSON representations of tracked analytics events.
-    public static List<String> eventJsonList;
+    // A durable log of every tracked event, drained by our own transports.
+    public static AppStartup.Component<EventOutbox> eventOutbox;
 
-    // Static initializer block to create the ArrayList instance when the class is loaded.
+    // Generates the transaction IDs of purchases.
+    public static AppStartup.Component<OrderIdGenerator> orderIdGenerator;
+
+    // The order ID of the last checkout, until its purchase event is logged.
+    public static AppStartup.Component<PendingOrder> pendingOrder;
+
+    // Drops purchase and refund events whose transaction was already logged.
+    public static AppStartup.Component<PurchaseDeduplicator> purchaseDeduplicator;
+
+    // Static initializer block to create the EventLog instance when the class is loaded.
     static {
-        eventJsonList = new ArrayList<>();
+        eventLog = new EventLog(EVENT_LOG_CAPACITY);
     }
 
     /**
@@ -40,5 +82,114 @@ public class MyApplication extends Application {
     @Override
     public void onCreate() {
         super.onCreate();
+        startup = new AppStartup();
+
+        Metrics metrics = Metrics.getInstance();
+        metrics.gauge("event_log.total", eventLog::getTotalCount);
+        metrics.gauge("cart.lines", () -> Cart.getInstance().getLineCount());
+        metrics.gauge("cart.items", () -> Cart.getInstance().getItemCount());
+        metrics.gauge("cart.row_inflations", CartLineAdapter::getInflationCount);
+        metrics.gauge("bus.subscribers", EventBus.getInstance()::getSubscriberCount);
+        metrics.gauge("bus.published", EventBus.getInstance()::getPublishedCount);
+
+        // Persist the cart across process death. The journal must listen before the first
+        // change; the saved cart itself is restored in the background.
+        cartJournal = startup.register("cart-journal", AppStartup.Mode.EAGER,
+                () -> new CartJournal(Cart.getInstance(), new File(getFilesDir(), CART_JOURNAL_FILE_NAME),
+                        BuildConfig.VERSION_CODE));
+
+        // Everything else waits for the first frame unless an event needs it sooner,
+        // in which case it is created on the dispatcher thread.
+        firebaseAnalytics = startup.register("firebase-analytics", AppStartup.Mode.AFTER_FIRST_DRAW,
+                () -> FirebaseAnalytics.getInstance(this));
+
+        // Keep every tracked event on disk until a transport acknowledges it.
+        eventOutbox = startup.register("event-outbox", AppStartup.Mode.AFTER_FIRST_DRAW, () -> {
+            EventOutbox outbox = new EventOutbox(new File(getFilesDir(), EVENT_OUTBOX_DIRECTORY_NAME));
+            metrics.gauge("outbox.appended", outbox::getAppendedCount);
+            metrics.gauge("outbox.dropped", outbox::getDroppedCount);
+            metrics.gauge("outbox.batches", outbox::getBatchCount);
+            metrics.gauge("outbox.compactions", outbox::getCompactionCount);
+            return outbox;
+        });
+        // The outbox is opened on the dispatcher thread if the first event comes before the first frame.
+        eventOutboxSubscriber = record -> {
+            EventOutbox outbox = eventOutbox.get();
+            if (outbox != null) {
+                outbox.append(record.getTimestampMillis(), record.getEventName(), record.getJson());
+            }
+        };
+        EventBus.getInstance().subscribe(EventRecord.class, eventOutboxSubscriber);
+
+        // Load the JSON writer classes before the first event is captured.
+        startup.register("event-json-serializer", AppStartup.Mode.AFTER_FIRST_DRAW,
+                EventJsonSerializer::getInstance);
+
+        // Only needed at checkout.
+        orderIdGenerator = startup.register("order-id-generator", AppStartup.Mode.LAZY,
+                () -> new OrderIdGenerator(getOrderNodeId()));
+        pendingOrder = startup.register("pending-order", AppStartup.Mode.LAZY,
+                () -> new PendingOrder(new File(getFilesDir(), PENDING_ORDER_FILE_NAME), orderIdGenerator.get()),
+                orderIdGenerator);
+        purchaseDeduplicator = startup.register("purchase-deduplicator", AppStartup.Mode.LAZY, () -> {
+            PurchaseDeduplicator deduplicator =
+                    new PurchaseDeduplicator(new File(getFilesDir(), PURCHASE_DEDUPLICATOR_DIRECTORY_NAME));
+            metrics.gauge("dedup.checked", deduplicator::getCheckedCount);
+            metrics.gauge("dedup.dropped", deduplicator::getDroppedCount);
+            metrics.gauge("dedup.false_positives", deduplicator::getFalsePositiveCount);
+            return deduplicator;
+        });
+
+        // Send the outbox to the server container too, if one is configured. Nothing else
+        // uses the sender; the startup keeps it, and its thread keeps it running.
+        if (!BuildConfig.SGTM_COLLECT_URL.isEmpty()) {
+            startup.register("measurement-protocol-sender",
+                    AppStartup.Mode.AFTER_FIRST_DRAW, () -> {
+                        MeasurementProtocolSender sender = new MeasurementProtocolSender(
+                                BuildConfig.SGTM_COLLECT_URL, BuildConfig.GA4_MEASUREMENT_ID, getClientId(),
+                                eventOutbox.get());
+                        sender.start();
+                        metrics.gauge("sender.hits_sent", sender::getSentHitCount);
+                        metrics.gauge("sender.requests", sender::getRequestCount);
+                        metrics.gauge("sender.failed_requests", sender::getFailedRequestCount);
+                        metrics.gauge("sender.rejected_hits", sender::getRejectedHitCount);
+                        return sender;
+                    }, eventOutbox);
+        }
+
+        startup.start(this);
+    }
+
+    /**
+     * Returns the ID of this app instance, in the "random.timestamp" format GA4 uses
+     * for client IDs. Generated on first use and kept until the app is uninstalled.
+     *
+     * @return The client ID.
+     */
+    private String getClientId() {
+        SharedPreferences preferences = getSharedPreferences(INSTALL_PREFERENCES_NAME, MODE_PRIVATE);
+        String clientId = preferences.getString(CLIENT_ID_KEY, null);
+        if (clientId == null) {
+            long random = UUID.randomUUID().getMostSignificantBits() & 0x7fffffffL;
+            clientId = random + "." + System.currentTimeMillis() / 1000;
+            preferences.edit().putString(CLIENT_ID_KEY, clientId).apply();
+        }
+        return clientId;
+    }
+
+    /**
+     * Returns the node ID that makes this app instance's order IDs distinct from those
+     * of other installs. Generated on first use and kept until the app is uninstalled.
+     *
+     * @return A random 40-bit node ID.
+     */
+    private long getOrderNodeId() {
+        SharedPreferences preferences = getSharedPreferences(INSTALL_PREFERENCES_NAME, MODE_PRIVATE);
+        long nodeId = preferences.getLong(ORDER_NODE_ID_KEY, -1);
+        if (nodeId < 0) {
+            nodeId = UUID.randomUUID().getLeastSignificantBits() & ((1L << OrderIdGenerator.NODE_BITS) - 1);
+            preferences.edit().putLong(ORDER_NODE_ID_KEY, nodeId).apply();
+        }
+        return nodeId;
     }
 }
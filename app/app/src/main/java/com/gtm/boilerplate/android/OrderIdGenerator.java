@@ -0,0 +1,103 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates order IDs that are unique across installs and sort by creation time.
+ * <p>
+ * An ID is 21 Crockford base32 characters: 13 for a 64-bit stamp holding the
+ * creation time in milliseconds (48 bits) and a sequence number within that
+ * millisecond (16 bits), followed by 8 for a random 40-bit node ID fixed per install.
+ * The stamp is advanced with a compare-and-set, so callers never block: when the
+ * sequence of a millisecond is used up, or the clock goes backwards, the stamp simply
+ * moves on from the last one issued. IDs from one install are therefore strictly
+ * increasing, and two installs would have to share a node ID, millisecond and
+ * sequence number to collide.
+ */
+public class OrderIdGenerator {
+    // Crockford's base32 alphabet, whose order matches ASCII order.
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int SEQUENCE_BITS = 16;
+    static final int NODE_BITS = 40;
+    static final int LENGTH = 21;
+
+    private final LongSupplier clock;
+    private final char[] nodeChars = new char[8];
+    // The last stamp issued: milliseconds << SEQUENCE_BITS | sequence.
+    private final AtomicLong lastStamp = new AtomicLong();
+
+    /**
+     * Creates a generator using the system clock.
+     *
+     * @param nodeId The node ID of this install; only the lowest 40 bits are used.
+     */
+    public OrderIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param nodeId The node ID of this install; only the lowest 40 bits are used.
+     * @param clock Returns the current time in milliseconds.
+     */
+    OrderIdGenerator(long nodeId, LongSupplier clock) {
+        this.clock = clock;
+        encode(nodeId, nodeChars, 0, nodeChars.length);
+    }
+
+    /**
+     * Generates the next order ID.
+     *
+     * @return A new ID, greater than every ID this generator returned before.
+     */
+    public String next() {
+        char[] id = new char[LENGTH];
+        encode(nextStamp(), id, 0, 13);
+        System.arraycopy(nodeChars, 0, id, 13, nodeChars.length);
+        return new String(id);
+    }
+
+    /**
+     * Reserves the next stamp: the first sequence number of the current millisecond,
+     * or the one after the last stamp if that is larger.
+     *
+     * @return The stamp.
+     */
+    long nextStamp() {
+        long floor = clock.getAsLong() << SEQUENCE_BITS;
+        while (true) {
+            long last = lastStamp.get();
+            long next = Math.max(floor, last + 1);
+            if (lastStamp.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Writes the lowest 5 * length bits of a value as base32, most significant first.
+     */
+    private static void encode(long value, char[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+}
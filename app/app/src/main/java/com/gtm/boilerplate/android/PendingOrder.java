@@ -0,0 +1,133 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the order ID of a checkout until its purchase event is logged, so that a
+ * checkout repeated for the same cart, e.g. by a second tap or after the screen or
+ * process was re-created, reuses the ID and is dropped by the {@link PurchaseDeduplicator}
+ * instead of being counted as a second purchase.
+ * <p>
+ * The pending ID is keyed to a fingerprint of the cart's products, quantities and
+ * subtotal: a changed cart is a new order and gets a new ID. The pending order is saved
+ * to a file, written to a temporary file and renamed over it, on every change.
+ */
+public class PendingOrder {
+    private final File file;
+    private final OrderIdGenerator orderIdGenerator;
+    private long fingerprint;
+    private String orderId;
+
+    /**
+     * Creates a pending order store, restoring the pending order saved in a file. A
+     * missing or unreadable file starts it without one.
+     *
+     * @param file The file the pending order is saved to.
+     * @param orderIdGenerator Generates the IDs of new orders.
+     */
+    public PendingOrder(File file, OrderIdGenerator orderIdGenerator) {
+        this.file = file;
+        this.orderIdGenerator = orderIdGenerator;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            long savedFingerprint = input.readLong();
+            orderId = input.readUTF();
+            fingerprint = savedFingerprint;
+        } catch (IOException e) {
+            orderId = null;
+        }
+    }
+
+    /**
+     * Returns the order ID for checking out a cart: the pending one if it was issued for
+     * the same cart and not acknowledged yet, a new one otherwise.
+     *
+     * @param snapshot The cart being checked out.
+     * @return The order ID to send as the transaction ID.
+     */
+    public synchronized String orderIdFor(CartSnapshot snapshot) {
+        long cartFingerprint = fingerprint(snapshot);
+        if (orderId == null || fingerprint != cartFingerprint) {
+            fingerprint = cartFingerprint;
+            orderId = orderIdGenerator.next();
+            save();
+        }
+        return orderId;
+    }
+
+    /**
+     * Marks the purchase of an order as logged, so the next checkout gets a new ID.
+     * Does nothing if the order is not the pending one.
+     *
+     * @param acknowledgedOrderId The transaction ID of the logged purchase.
+     */
+    public synchronized void acknowledge(String acknowledgedOrderId) {
+        if (acknowledgedOrderId.equals(orderId)) {
+            orderId = null;
+            file.delete();
+        }
+    }
+
+    private void save() {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            DataOutputStream data = new DataOutputStream(output);
+            data.writeLong(fingerprint);
+            data.writeUTF(orderId);
+            data.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            // Persistence is best effort; the ID is still reused until the process ends.
+            return;
+        }
+        temp.renameTo(file);
+    }
+
+    /**
+     * Hashes the products, quantities and subtotal of a cart with 64-bit FNV-1a.
+     */
+    private static long fingerprint(CartSnapshot snapshot) {
+        long hash = 0xcbf29ce484222325L;
+        for (CartLine line : snapshot.getLines()) {
+            byte[] productId = line.getProductId().getBytes(StandardCharsets.UTF_8);
+            // Prefixed with its length, so the ID and the quantity can't run together.
+            hash = mix(hash, productId.length);
+            for (byte b : productId) {
+                hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            }
+            hash = mix(hash, line.getQuantity());
+        }
+        return mix(hash, snapshot.getSubtotalCents());
+    }
+
+    /**
+     * Mixes the 8 bytes of a value into an FNV-1a hash.
+     */
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -15,19 +15,22 @@
  */
 package com.soteria.firebaseapp.android;
 
-import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * Represents a product in the store.
- * Implements Serializable to allow product objects to be passed between activities.
+ * Screens hand products to each other by ID and resolve them through the
+ * {@link ProductCatalog}, so products are never serialized.
  */
-public class Product implements Serializable {
+public class Product {
     private String id;
     private String name;
     private String category;
     private double price;
+    private long priceCents; // Exact price in minor units, derived from price.
+    private String displayPrice; // Formatted price, derived from price.
     private int imageResource;
-    private int quantity = 1; // Default quantity is 1 when a product is created.
     private String sku; // Stock Keeping Unit.
 
     /**
@@ -44,7 +47,7 @@ public class Product implements Serializable {
         this.id = id;
         this.name = name;
         this.category = category;
-        this.price = price;
+        setPrice(price);
         this.imageResource = imageResource;
         this.sku = sku;
     }
@@ -81,22 +84,52 @@ public class Product implements Serializable {
 
     public void setPrice(double price) {
         this.price = price;
+        this.priceCents = BigDecimal.valueOf(price).movePointRight(2)
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+        this.displayPrice = formatPrice(priceCents);
     }
 
-    public int getImageResource() {
-        return imageResource;
+    /**
+     * @return The price formatted for display, e.g. "$149.99". Computed once per price.
+     */
+    public String getDisplayPrice() {
+        return displayPrice;
     }
 
-    public void setImageResource(int imageResource) {
-        this.imageResource = imageResource;
+    /**
+     * Formats an amount in cents as dollars with two decimals, without the locale
+     * lookups and allocations of String.format.
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount, e.g. "$149.99".
+     */
+    public static String formatPrice(long cents) {
+        StringBuilder sb = new StringBuilder(12);
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        sb.append('$').append(cents / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
     }
 
-    public int getQuantity() {
-        return quantity;
+    /**
+     * @return The price in cents, for exact arithmetic on totals.
+     */
+    public long getPriceCents() {
+        return priceCents;
     }
 
-    public void setQuantity(int quantity) {
-        this.quantity = quantity;
+    public int getImageResource() {
+        return imageResource;
+    }
+
+    public void setImageResource(int imageResource) {
+        this.imageResource = imageResource;
     }
 
     public String getSku() {
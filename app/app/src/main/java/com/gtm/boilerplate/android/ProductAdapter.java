@@ -19,25 +19,89 @@ import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
+import android.widget.BaseAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
- * Custom ArrayAdapter for displaying Product objects in a ListView.
+ * Adapter displaying the products of the catalog in a ListView.
+ * <p>
+ * Only the product IDs of the loaded pages are kept, in catalog order; the products
+ * themselves are resolved through the size-bounded {@link ProductCatalog}, so memory stays
+ * flat however far the list is scrolled. A row whose product was evicted is shown empty
+ * while its page is reloaded from the {@link ProductRepository}.
  */
-public class ProductAdapter extends ArrayAdapter<Product> {
+public class ProductAdapter extends BaseAdapter {
+    private final Context context;
+    private final ProductCatalog catalog = ProductCatalog.getInstance();
+    private final List<String> productIds = new ArrayList<>();
+    // Pages being reloaded because some of their products were evicted.
+    private final Set<Integer> reloadingPages = new HashSet<>();
 
     /**
      * Constructor for the ProductAdapter.
      *
      * @param context The current context.
-     * @param products The list of products to display.
      */
-    public ProductAdapter(Context context, List<Product> products) {
-        super(context, 0, products);
+    public ProductAdapter(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Appends the next page of the catalog to the list.
+     *
+     * @param products The products of the page, already added to the catalog.
+     */
+    public void addPage(List<Product> products) {
+        for (Product product : products) {
+            productIds.add(product.getId());
+        }
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getCount() {
+        return productIds.size();
+    }
+
+    /**
+     * Resolves the product at a position, reloading its page if it was evicted.
+     *
+     * @param position The position in the list.
+     * @return The product, or null while its page is being reloaded.
+     */
+    @Override
+    public Product getItem(int position) {
+        Product product = catalog.get(productIds.get(position));
+        if (product == null) {
+            reloadPage(position / ProductRepository.PAGE_SIZE);
+        }
+        return product;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    /**
+     * Loads a page back into the catalog and rebinds the rows once it is there.
+     *
+     * @param pageIndex The index of the page; pages are appended in catalog order.
+     */
+    private void reloadPage(int pageIndex) {
+        if (!reloadingPages.add(pageIndex)) {
+            return;
+        }
+        ProductRepository.getInstance(context).loadPage(pageIndex, (index, products, endReached) -> {
+            reloadingPages.remove(index);
+            notifyDataSetChanged();
+        });
     }
 
     /**
@@ -53,22 +117,46 @@ public class ProductAdapter extends ArrayAdapter<Product> {
         // Get the data item for this position.
         Product product = getItem(position);
 
-        // Check if an existing view is being reused, otherwise inflate the view.
+        // Reuse the recycled row and its cached views, otherwise inflate a new one.
+        ViewHolder holder;
         if (convertView == null) {
-            convertView = LayoutInflater.from(getContext()).inflate(R.layout.product_list_item, parent, false);
+            convertView = LayoutInflater.from(context).inflate(R.layout.product_list_item, parent, false);
+            holder = new ViewHolder(convertView);
+            convertView.setTag(holder);
+        } else {
+            holder = (ViewHolder) convertView.getTag();
         }
 
-        // Lookup view for data population.
-        ImageView productImageView = convertView.findViewById(R.id.product_imageview);
-        TextView productNameTextView = convertView.findViewById(R.id.product_name_textview);
-        TextView productPriceTextView = convertView.findViewById(R.id.product_price_textview);
+        if (product == null) {
+            // Evicted from the catalog; the row is rebound once its page is reloaded.
+            holder.productImageView.setTag(R.id.image_loader_key, null);
+            holder.productImageView.setImageDrawable(null);
+            holder.productNameTextView.setText(null);
+            holder.productPriceTextView.setText(null);
+            return convertView;
+        }
 
         // Populate the data into the template view using the data object.
-        productImageView.setImageResource(product.getImageResource());
-        productNameTextView.setText(product.getName());
-        productPriceTextView.setText(String.format("$%.2f", product.getPrice()));
+        ImageLoader.getInstance(context).load(holder.productImageView, product.getImageResource());
+        holder.productNameTextView.setText(product.getName());
+        holder.productPriceTextView.setText(product.getDisplayPrice());
 
         // Return the completed view to render on screen.
         return convertView;
     }
+
+    /**
+     * Caches the views of a product row, so binding a recycled row does no view lookups.
+     */
+    static class ViewHolder {
+        final ImageView productImageView;
+        final TextView productNameTextView;
+        final TextView productPriceTextView;
+
+        ViewHolder(View itemView) {
+            productImageView = itemView.findViewById(R.id.product_imageview);
+            productNameTextView = itemView.findViewById(R.id.product_name_textview);
+            productPriceTextView = itemView.findViewById(R.id.product_price_textview);
+        }
+    }
 }
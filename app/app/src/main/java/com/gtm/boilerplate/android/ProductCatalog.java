@@ -0,0 +1,103 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+import android.util.LruCache;
+
+/**
+ * An in-process, size-bounded LRU cache of decoded products, keyed by product ID.
+ * {@link ProductRepository} fills it as catalog pages are loaded, and screens hand a
+ * product to each other by ID and resolve it here, instead of marshalling the whole
+ * object through the navigation arguments.
+ */
+public class ProductCatalog {
+    // Argument holding the ID of the product being handed off.
+    public static final String ARG_PRODUCT_ID = "PRODUCT_ID";
+
+    // Maximum number of decoded products kept in memory, whatever the catalog size.
+    private static final int MAX_CACHED_PRODUCTS = 512;
+
+    // LruCache is thread-safe, so pages can be added from the loader thread.
+    private final LruCache<String, Product> products = new LruCache<>(MAX_CACHED_PRODUCTS);
+
+    /**
+     * Holds the single instance, created on first access by the class loader.
+     */
+    private static class Holder {
+        static final ProductCatalog INSTANCE = new ProductCatalog();
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     */
+    private ProductCatalog() {
+    }
+
+    /**
+     * Provides a global point of access to the ProductCatalog instance.
+     *
+     * @return The single instance of the ProductCatalog.
+     */
+    public static ProductCatalog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Adds or replaces a product in the catalog.
+     *
+     * @param product The product to cache.
+     */
+    public void put(Product product) {
+        products.put(product.getId(), product);
+    }
+
+    /**
+     * Finds a product by its ID.
+     *
+     * @param productId The ID of the product.
+     * @return The Product if it is cached, otherwise null (never loaded, or evicted).
+     */
+    public Product get(String productId) {
+        return products.get(productId);
+    }
+
+    /**
+     * Puts a product into the arguments of a screen, as its ID only. The product is
+     * cached so the receiver normally resolves it here; if it was evicted, or the screen
+     * is recreated after process death, the receiver loads it with
+     * {@link ProductRepository#loadProduct(String, ProductRepository.ProductCallback)}.
+     *
+     * @param arguments The arguments of the receiving screen.
+     * @param product The product to hand off.
+     */
+    public static void putProduct(Bundle arguments, Product product) {
+        getInstance().put(product);
+        arguments.putString(ARG_PRODUCT_ID, product.getId());
+    }
+
+    /**
+     * Resolves a product put into arguments with {@link #putProduct(Bundle, Product)}
+     * against the catalog.
+     *
+     * @param arguments The arguments of the screen.
+     * @return The product, or null if the arguments do not carry one or it is not cached.
+     */
+    public static Product getProduct(Bundle arguments) {
+        String productId = arguments.getString(ARG_PRODUCT_ID);
+        return productId != null ? getInstance().get(productId) : null;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.Animation;
+import android.view.animation.AnimationUtils;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+/**
+ * Displays the details of a single product and allows the user to add it to the cart.
+ */
+public class ProductDetailsFragment extends Fragment {
+    private static final Metrics.Histogram CREATE_VIEW_TIME =
+            Metrics.getInstance().histogram("screen.product_details.create_view");
+
+    private Product product;
+    // Whether this visit still has to log its 'view_item' event.
+    private boolean viewItemPending;
+    private long createViewStart;
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Log the 'view_item' event to Firebase Analytics, once per visit rather than
+        // every time the screen comes back from the back stack.
+        viewItemPending = savedInstanceState == null;
+
+        // Resolve the product handed off by the previous screen. It is only missing from
+        // the catalog if it was evicted, or after process death; load it then.
+        product = ProductCatalog.getProduct(requireArguments());
+        if (product != null) {
+            onProductResolved();
+        } else {
+            String productId = requireArguments().getString(ProductCatalog.ARG_PRODUCT_ID);
+            ProductRepository.getInstance(requireContext()).loadProduct(productId, loaded -> {
+                if (loaded == null || !isAdded()) {
+                    return;
+                }
+                product = loaded;
+                onProductResolved();
+                if (getView() != null) {
+                    bindProduct(getView());
+                }
+            });
+        }
+    }
+
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        createViewStart = System.nanoTime();
+        return inflater.inflate(R.layout.fragment_product_details, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        if (product != null) {
+            bindProduct(view);
+        }
+
+        CREATE_VIEW_TIME.recordSince(createViewStart);
+    }
+
+    /**
+     * Logs the 'view_item' event of the visit once the product is known.
+     */
+    private void onProductResolved() {
+        if (viewItemPending) {
+            viewItemPending = false;
+            Product viewedProduct = product;
+            EventDispatcher.getInstance(requireContext()).dispatch(FirebaseAnalytics.Event.VIEW_ITEM,
+                    () -> EcommercePayloadBuilder.getInstance().viewItem(viewedProduct));
+        }
+    }
+
+    /**
+     * Populates the UI elements with the product's details.
+     *
+     * @param view The root view of the screen.
+     */
+    private void bindProduct(View view) {
+        TextView productNameTextView = view.findViewById(R.id.product_name_textview);
+        productNameTextView.setText(product.getName());
+
+        ImageView productImageView = view.findViewById(R.id.product_imageview);
+        int imageResourceId = product.getImageResource();
+        Log.d("ProductDetailsFragment", "Image resource ID: " + imageResourceId);
+        ImageLoader.getInstance(requireContext()).load(productImageView, imageResourceId);
+
+        TextView productPriceTextView = view.findViewById(R.id.product_price_textview);
+        productPriceTextView.setText(product.getDisplayPrice());
+
+        // Set up the "Add to Cart" button.
+        Button addToCartButton = view.findViewById(R.id.add_to_cart_button);
+        addToCartButton.setOnClickListener(button -> {
+            // Add the product to the cart, or increment its quantity if it is already there.
+            Cart.getInstance().addItem(product);
+
+            // Log the 'add_to_cart' event; repeated taps are coalesced into one event.
+            EventBatcher.getInstance(requireContext()).addToCart(product, 1);
+
+            // Animate the cart icon in the shared toolbar to give visual feedback.
+            ImageView cartIcon = requireActivity().findViewById(R.id.cart_icon);
+            Animation bounceAnimation = AnimationUtils.loadAnimation(requireContext(), R.anim.bounce);
+            cartIcon.startAnimation(bounceAnimation);
+        });
+    }
+}
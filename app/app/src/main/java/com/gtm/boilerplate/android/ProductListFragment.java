@@ -0,0 +1,129 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.ListView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
+import androidx.navigation.fragment.NavHostFragment;
+
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+/**
+ * The start screen, displaying the list of products.
+ * The fragment stays on the back stack while other screens are shown, so the loaded
+ * product IDs are kept in the fragment and only its views are rebuilt on return; the
+ * 'view_item_list' event is logged once per fragment, not once per visit.
+ */
+public class ProductListFragment extends Fragment {
+    private static final Metrics.Histogram CREATE_VIEW_TIME =
+            Metrics.getInstance().histogram("screen.product_list.create_view");
+
+    private ProductAdapter productAdapter;
+    // Paging state of the product list.
+    private int nextPageIndex;
+    private boolean pageLoading;
+    private boolean catalogEndReached;
+    private long createViewStart;
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        // The list is filled page by page from the catalog.
+        productAdapter = new ProductAdapter(requireContext());
+        loadNextPage();
+    }
+
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        createViewStart = System.nanoTime();
+        return inflater.inflate(R.layout.fragment_product_list, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        ListView productListView = view.findViewById(R.id.product_listview);
+        productListView.setAdapter(productAdapter);
+
+        // On click, open the product details screen for the product.
+        productListView.setOnItemClickListener((parent, itemView, position, id) -> {
+            Product product = productAdapter.getItem(position);
+            if (product == null) {
+                // The row is empty while its page is reloaded.
+                return;
+            }
+            Bundle arguments = new Bundle();
+            ProductCatalog.putProduct(arguments, product);
+            NavHostFragment.findNavController(this)
+                    .navigate(R.id.action_product_list_to_product_details, arguments);
+        });
+
+        // Load the next page when the user scrolls close to the end of the list.
+        productListView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (firstVisibleItem + visibleItemCount >= totalItemCount - ProductRepository.PAGE_SIZE / 2) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        CREATE_VIEW_TIME.recordSince(createViewStart);
+    }
+
+    /**
+     * Requests the next page of the catalog unless one is already loading or the
+     * whole catalog is shown.
+     */
+    private void loadNextPage() {
+        if (pageLoading || catalogEndReached) {
+            return;
+        }
+        pageLoading = true;
+        Context context = requireContext().getApplicationContext();
+        ProductRepository.getInstance(context).loadPage(nextPageIndex, (pageIndex, products, endReached) -> {
+            if (getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+                return;
+            }
+            pageLoading = false;
+            catalogEndReached = endReached;
+            nextPageIndex = pageIndex + 1;
+            productAdapter.addPage(products);
+
+            // Log the 'view_item_list' event to Firebase Analytics for the first page shown,
+            // once the first frame is on screen.
+            if (pageIndex == 0 && !products.isEmpty()) {
+                MyApplication.startup.runAfterFirstDraw(() -> EventDispatcher.getInstance(context).dispatch(
+                        FirebaseAnalytics.Event.VIEW_ITEM_LIST,
+                        () -> EcommercePayloadBuilder.getInstance().viewItemList(products)));
+            }
+        });
+    }
+}
@@ -0,0 +1,392 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the product catalog from the {@code catalog.json} asset in pages on a background
+ * thread. The asset is streamed, so only the requested page is ever decoded, and
+ * sequential pages continue from where the previous one stopped. Pages requested out of
+ * order, e.g. to reload evicted products, are read by a separate reader that seeks straight
+ * to the page, so the sequential reader keeps its place. The byte offset of each page is
+ * found by scanning the raw asset once, far cheaper than decoding it, and then remembered.
+ * Decoded products are added to the {@link ProductCatalog} LRU, keeping memory flat
+ * regardless of catalog size.
+ */
+public class ProductRepository {
+    private static final String TAG = "ProductRepository";
+    // Name of the catalog asset: a JSON array of {id, name, category, price, image, sku}.
+    private static final String CATALOG_ASSET = "catalog.json";
+    // Number of products decoded per page.
+    public static final int PAGE_SIZE = 20;
+
+    // The single instance of the repository.
+    private static ProductRepository instance;
+
+    private final Context appContext;
+    private final ExecutorService executor;
+    private final Handler mainHandler;
+
+    // Loader state, only accessed on the executor thread.
+    private JsonReader reader;
+    private int nextPageIndex;
+    // Byte offsets in the asset of the first entry of each page, as far as scanned.
+    private final List<Long> pageOffsets = new ArrayList<>();
+    private final Map<String, Integer> imageResourceIds = new HashMap<>();
+
+    /**
+     * Receives a loaded page on the main thread.
+     */
+    public interface PageCallback {
+        /**
+         * @param pageIndex The index of the page, starting at 0.
+         * @param products The products of the page, empty past the end of the catalog.
+         * @param endReached Whether this is the last page.
+         */
+        void onPageLoaded(int pageIndex, List<Product> products, boolean endReached);
+    }
+
+    /**
+     * Receives a product looked up by ID on the main thread.
+     */
+    public interface ProductCallback {
+        /**
+         * @param product The product, or null if the catalog has no product with that ID.
+         */
+        void onProductLoaded(Product product);
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     *
+     * @param context The application context.
+     */
+    private ProductRepository(Context context) {
+        appContext = context;
+        mainHandler = new Handler(Looper.getMainLooper());
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Provides a global point of access to the ProductRepository instance.
+     * Creates the instance if it doesn't exist yet (thread-safe).
+     *
+     * @param context Any context, only its application context is retained.
+     * @return The single instance of the ProductRepository.
+     */
+    public static synchronized ProductRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProductRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Loads a page of products in the background and delivers it on the main thread.
+     *
+     * @param pageIndex The index of the page, starting at 0.
+     * @param callback Receives the page.
+     */
+    public void loadPage(int pageIndex, PageCallback callback) {
+        executor.execute(() -> {
+            List<Product> products = new ArrayList<>(PAGE_SIZE);
+            boolean endReached;
+            try {
+                endReached = readPage(pageIndex, products);
+            } catch (IOException | IllegalStateException e) {
+                Log.e(TAG, "Unable to load catalog page " + pageIndex, e);
+                closeReader();
+                endReached = true;
+            }
+            boolean lastPage = endReached;
+            mainHandler.post(() -> callback.onPageLoaded(pageIndex, products, lastPage));
+        });
+    }
+
+    /**
+     * Looks up a product by ID, in the {@link ProductCatalog} or else by streaming the
+     * catalog asset in the background, and delivers it on the main thread. Used when a
+     * product handed off by ID is no longer cached, e.g. after process death.
+     *
+     * @param productId The ID of the product.
+     * @param callback Receives the product.
+     */
+    public void loadProduct(String productId, ProductCallback callback) {
+        executor.execute(() -> {
+            Product product = ProductCatalog.getInstance().get(productId);
+            if (product == null) {
+                try {
+                    product = findProduct(productId);
+                } catch (IOException | IllegalStateException e) {
+                    Log.e(TAG, "Unable to load product " + productId, e);
+                }
+            }
+            Product loaded = product;
+            mainHandler.post(() -> callback.onProductLoaded(loaded));
+        });
+    }
+
+    /**
+     * Scans the catalog asset for a product, without disturbing the sequential page
+     * reader. Runs on the executor thread.
+     *
+     * @param productId The ID of the product.
+     * @return The product, also added to the catalog, or null if there is none.
+     */
+    private Product findProduct(String productId) throws IOException {
+        try (JsonReader in = new JsonReader(new BufferedReader(new InputStreamReader(
+                appContext.getAssets().open(CATALOG_ASSET), StandardCharsets.UTF_8)))) {
+            in.beginArray();
+            while (in.hasNext()) {
+                Product product = readProduct(in);
+                if (productId.equals(product.getId())) {
+                    ProductCatalog.getInstance().put(product);
+                    return product;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes one page of the catalog. Runs on the executor thread.
+     *
+     * @param pageIndex The index of the page.
+     * @param products Receives the decoded products.
+     * @return Whether the end of the catalog was reached.
+     */
+    private boolean readPage(int pageIndex, List<Product> products) throws IOException {
+        if (pageIndex != nextPageIndex || (reader == null && pageIndex != 0)) {
+            return readPageAt(pageIndex, products);
+        }
+        if (reader == null) {
+            openReader();
+        }
+        ProductCatalog catalog = ProductCatalog.getInstance();
+        while (products.size() < PAGE_SIZE && reader.hasNext()) {
+            Product product = readProduct(reader);
+            catalog.put(product);
+            products.add(product);
+        }
+        nextPageIndex = pageIndex + 1;
+        if (reader.hasNext()) {
+            return false;
+        }
+        closeReader();
+        return true;
+    }
+
+    /**
+     * Decodes a page out of order with its own reader, starting at the page's offset in the
+     * asset, and leaves the sequential reader where it is. Runs on the executor thread.
+     *
+     * @param pageIndex The index of the page.
+     * @param products Receives the decoded products.
+     * @return Whether the end of the catalog was reached.
+     */
+    private boolean readPageAt(int pageIndex, List<Product> products) throws IOException {
+        if (pageIndex >= pageOffsets.size()) {
+            try (InputStream in = new BufferedInputStream(appContext.getAssets().open(CATALOG_ASSET))) {
+                indexPages(in, pageOffsets, pageIndex);
+            }
+            if (pageIndex >= pageOffsets.size()) {
+                return true;
+            }
+        }
+        try (InputStream asset = appContext.getAssets().open(CATALOG_ASSET)) {
+            skipFully(asset, pageOffsets.get(pageIndex));
+            // The entries from the page on, up to the end of the catalog, read as an array.
+            JsonReader in = new JsonReader(new BufferedReader(new InputStreamReader(
+                    new SequenceInputStream(new ByteArrayInputStream(new byte[] {'['}), asset),
+                    StandardCharsets.UTF_8)));
+            in.beginArray();
+            ProductCatalog catalog = ProductCatalog.getInstance();
+            while (products.size() < PAGE_SIZE && in.hasNext()) {
+                Product product = readProduct(in);
+                catalog.put(product);
+                products.add(product);
+            }
+            return !in.hasNext();
+        }
+    }
+
+    /**
+     * Scans the raw catalog array for the entries that start pages, until the offset of a
+     * page is known or the array ends. Resumes from the last page already indexed. Only
+     * brackets, braces and strings are tracked, which is enough to find the entries.
+     *
+     * @param in The catalog asset, from its start.
+     * @param pageOffsets The offsets of the pages found so far; new ones are appended.
+     * @param pageIndex The page whose offset is needed.
+     */
+    static void indexPages(InputStream in, List<Long> pageOffsets, int pageIndex) throws IOException {
+        int knownPages = pageOffsets.size();
+        long offset = knownPages == 0 ? 0 : pageOffsets.get(knownPages - 1);
+        skipFully(in, offset);
+        // Nesting depth, 1 directly inside the catalog array.
+        int depth = knownPages == 0 ? 0 : 1;
+        int entryIndex = knownPages == 0 ? 0 : (knownPages - 1) * PAGE_SIZE;
+        boolean inString = false;
+        boolean escaped = false;
+        int b;
+        while (pageOffsets.size() <= pageIndex && (b = in.read()) != -1) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                if (depth == 1) {
+                    if (entryIndex == pageOffsets.size() * PAGE_SIZE) {
+                        pageOffsets.add(offset);
+                    }
+                    entryIndex++;
+                }
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    return;
+                }
+            }
+            offset++;
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    private Product readProduct(JsonReader in) throws IOException {
+        String id = null;
+        String name = null;
+        String category = null;
+        double price = 0;
+        String image = null;
+        String sku = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "id":
+                    id = in.nextString();
+                    break;
+                case "name":
+                    name = in.nextString();
+                    break;
+                case "category":
+                    category = in.nextString();
+                    break;
+                case "price":
+                    price = in.nextDouble();
+                    break;
+                case "image":
+                    image = in.nextString();
+                    break;
+                case "sku":
+                    sku = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Product(id, name, category, price, resolveImage(image), sku);
+    }
+
+    /**
+     * Resolves a drawable name to its resource ID, caching the reflective lookup.
+     *
+     * @param image The name of the drawable, may be null.
+     * @return The resource ID, or 0 if there is no such drawable.
+     */
+    private int resolveImage(String image) {
+        if (image == null) {
+            return 0;
+        }
+        Integer resourceId = imageResourceIds.get(image);
+        if (resourceId == null) {
+            resourceId = appContext.getResources().getIdentifier(image, "drawable", appContext.getPackageName());
+            imageResourceIds.put(image, resourceId);
+        }
+        return resourceId;
+    }
+
+    private void openReader() throws IOException {
+        closeReader();
+        reader = new JsonReader(new BufferedReader(new InputStreamReader(
+                appContext.getAssets().open(CATALOG_ASSET), StandardCharsets.UTF_8)));
+        reader.beginArray();
+        nextPageIndex = 0;
+    }
+
+    private void closeReader() {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // The asset stream is read-only, nothing to recover.
+        }
+        reader = null;
+    }
+}
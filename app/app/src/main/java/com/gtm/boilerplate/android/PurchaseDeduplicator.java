@@ -0,0 +1,269 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the transaction IDs of logged purchase and refund events, so an event that
+ * is dispatched again for a transaction already logged is dropped instead of being
+ * counted twice.
+ * <p>
+ * The most recent IDs are kept in an exact set. Older ones are covered by a Bloom
+ * filter of two generations of 8 KB each: new IDs go into the current generation, and
+ * when it is full the previous one is discarded and the current one takes its place.
+ * Memory therefore stays fixed however many orders are placed, at the cost of
+ * forgetting IDs two generations old. The filter is only a prefilter: an event is
+ * dropped only if its ID is in the recent set, or if the filter matches and the ID is
+ * then found in the log files of the two generations. A false positive of the filter,
+ * under 0.1% with both generations full, costs a read of the logs but never drops a
+ * real purchase. Checks of new IDs are O(1).
+ * <p>
+ * Each new ID is appended to the log of the current generation and synced, which is
+ * cheap at the rate orders are placed; the filters and the recent set are rebuilt from
+ * the logs on creation. Checks are synchronized; the event dispatcher makes them on its
+ * worker thread, which also keeps the file I/O off the main thread.
+ */
+public class PurchaseDeduplicator {
+    // Number of IDs kept in the exact set.
+    static final int RECENT_CAPACITY = 128;
+    // Bits of each Bloom filter generation, and the number of IDs it holds before rotating.
+    private static final int FILTER_BITS = 1 << 16;
+    static final int GENERATION_CAPACITY = 4096;
+    private static final int HASH_COUNT = 7;
+
+    private static final String CURRENT_LOG_NAME = "current.ids";
+    private static final String PREVIOUS_LOG_NAME = "previous.ids";
+
+    // Logs of the IDs of each generation: records of [unsigned short length][UTF-8 key].
+    private final File currentLog;
+    private final File previousLog;
+    private final ArrayDeque<String> recentOrder = new ArrayDeque<>(RECENT_CAPACITY);
+    private final Set<String> recent = new HashSet<>();
+    private long[] currentFilter = new long[FILTER_BITS / 64];
+    private long[] previousFilter = new long[FILTER_BITS / 64];
+    private int currentCount;
+    private final AtomicLong checkedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong falsePositiveCount = new AtomicLong();
+
+    /**
+     * Creates a deduplicator, restoring the IDs logged in a directory. Missing or
+     * unreadable logs start it empty.
+     *
+     * @param directory The directory holding the logs.
+     */
+    public PurchaseDeduplicator(File directory) {
+        directory.mkdirs();
+        currentLog = new File(directory, CURRENT_LOG_NAME);
+        previousLog = new File(directory, PREVIOUS_LOG_NAME);
+        // The previous generation first, so the recent set ends with the newest IDs.
+        for (String key : load(previousLog)) {
+            remember(key, previousFilter, hash(key));
+        }
+        for (String key : load(currentLog)) {
+            remember(key, currentFilter, hash(key));
+            currentCount++;
+        }
+    }
+
+    /**
+     * Checks whether a transaction was already seen, and remembers it if not.
+     *
+     * @param eventName The event name; the same transaction may be logged once per event name,
+     *                  e.g. once as a purchase and once as a refund.
+     * @param transactionId The transaction ID of the event.
+     * @return True if the event is a duplicate and should be dropped.
+     */
+    public synchronized boolean isDuplicate(String eventName, String transactionId) {
+        checkedCount.incrementAndGet();
+        String key = eventName + '\n' + transactionId;
+        long hash = hash(key);
+        boolean duplicate = recent.contains(key);
+        if (!duplicate && (mightContain(currentFilter, hash) || mightContain(previousFilter, hash))) {
+            // An older transaction, or a false positive of the filter: the logs tell.
+            duplicate = isLogged(key);
+            if (!duplicate) {
+                falsePositiveCount.incrementAndGet();
+            }
+        }
+        if (duplicate) {
+            droppedCount.incrementAndGet();
+            return true;
+        }
+        add(key, hash);
+        return false;
+    }
+
+    private void add(String key, long hash) {
+        if (currentCount == GENERATION_CAPACITY) {
+            long[] recycled = previousFilter;
+            Arrays.fill(recycled, 0);
+            previousFilter = currentFilter;
+            currentFilter = recycled;
+            currentCount = 0;
+            previousLog.delete();
+            currentLog.renameTo(previousLog);
+        }
+        remember(key, currentFilter, hash);
+        currentCount++;
+        try {
+            append(key);
+        } catch (IOException e) {
+            // Persistence is best effort; the recent set still deduplicates this session.
+        }
+    }
+
+    /**
+     * Adds a key to the recent set and to a filter.
+     */
+    private void remember(String key, long[] filter, long hash) {
+        if (recentOrder.size() == RECENT_CAPACITY) {
+            recent.remove(recentOrder.removeFirst());
+        }
+        recentOrder.addLast(key);
+        recent.add(key);
+
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int bit = (h1 + i * h2) & (FILTER_BITS - 1);
+            filter[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private static boolean mightContain(long[] filter, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int bit = (h1 + i * h2) & (FILTER_BITS - 1);
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes a key with 64-bit FNV-1a, followed by a finalizer that spreads the bits,
+     * since the Bloom filter indexes use both halves.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Scans the logs of both generations for a key. A log that can't be read counts as
+     * not containing it, so a read error never drops an event.
+     */
+    private boolean isLogged(String key) {
+        return load(currentLog).contains(key) || load(previousLog).contains(key);
+    }
+
+    /**
+     * Appends a key to the log of the current generation and syncs it.
+     */
+    private void append(String key) throws IOException {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(2 + bytes.length);
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+        try (FileOutputStream output = new FileOutputStream(currentLog, true)) {
+            output.write(record.array());
+            output.getFD().sync();
+        }
+    }
+
+    /**
+     * Reads the keys of a log. A record torn by a crash ends the log, and is cut off so
+     * that later appends follow the last complete record.
+     *
+     * @param log The log file.
+     * @return The keys, oldest first; empty if the log is missing or unreadable.
+     */
+    private static List<String> load(File log) {
+        List<String> keys = new ArrayList<>();
+        long validLength = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(log)))) {
+            while (true) {
+                int length = input.readUnsignedShort();
+                byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                keys.add(new String(bytes, StandardCharsets.UTF_8));
+                validLength += 2 + length;
+            }
+        } catch (EOFException e) {
+            // The end of the log, or of its last complete record.
+        } catch (IOException e) {
+            return keys;
+        }
+        if (validLength < log.length()) {
+            try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+                file.setLength(validLength);
+            } catch (IOException e) {
+                // Appends go after the torn record; the next load cuts them off with it.
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return The number of events checked.
+     */
+    public long getCheckedCount() {
+        return checkedCount.get();
+    }
+
+    /**
+     * @return The number of events found to be duplicates.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return The number of filter matches that the logs showed were new transactions.
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount.get();
+    }
+}
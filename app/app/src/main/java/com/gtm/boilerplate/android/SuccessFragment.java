@@ -0,0 +1,62 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+/**
+ * Displays a success message after a purchase is completed, including a unique order ID.
+ */
+public class SuccessFragment extends Fragment {
+    // Arguments set by the cart screen.
+    public static final String ARG_ORDER_ID = "ORDER_ID";
+    public static final String ARG_PURCHASE_JSON = "PURCHASE_JSON";
+
+    private static final Metrics.Histogram CREATE_VIEW_TIME =
+            Metrics.getInstance().histogram("screen.success.create_view");
+
+    private long createViewStart;
+
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        createViewStart = System.nanoTime();
+        return inflater.inflate(R.layout.fragment_success, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        Bundle arguments = requireArguments();
+
+        // Display the order ID, which is also the transaction ID of the purchase event.
+        String orderId = arguments.getString(ARG_ORDER_ID);
+        TextView orderIdTextView = view.findViewById(R.id.order_id_textview);
+        orderIdTextView.setText("Order ID: " + orderId);
+
+        // Retrieve the JSON string of the purchase event passed from the cart screen.
+        String purchaseJson = arguments.getString(ARG_PURCHASE_JSON);
+
+        CREATE_VIEW_TIME.recordSince(createViewStart);
+    }
+}
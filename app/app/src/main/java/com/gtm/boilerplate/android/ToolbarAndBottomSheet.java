@@ -17,44 +17,34 @@ package com.soteria.firebaseapp.android;
 
 import android.animation.ValueAnimator;
 import android.content.Intent;
-import android.graphics.Color;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.DisplayMetrics;
 import android.util.TypedValue;
 import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.navigation.fragment.NavHostFragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 /**
- * A utility class to manage a consistent Toolbar and a collapsible Bottom Sheet
- * for displaying event data across different activities.
+ * A utility class to set up the Toolbar and the collapsible Bottom Sheet displaying
+ * event data. Both are inflated once by {@link MainActivity} and shared by every screen.
  */
 public class ToolbarAndBottomSheet {
-    private static EventListener eventListener;
-
-    /**
-     * An interface to allow activities to listen for events triggered
-     * from this utility class.
-     */
-    public interface EventListener {
-        void onEvent(String eventName, Bundle params);
-    }
-
-    /**
-     * Sets the event listener.
-     * @param listener The listener to be notified of events.
-     */
-    public static void setEventListener(EventListener listener) {
-        eventListener = listener;
-    }
+    private static final Metrics.Histogram SERIALIZE_TIME = Metrics.getInstance().histogram("event.serialize");
+    private static final Metrics.Counter SERIALIZED_CHARS = Metrics.getInstance().counter("event.serialized_chars");
 
     /**
      * Initializes the Toolbar and Bottom Sheet for a given activity.
@@ -65,29 +55,98 @@ public class ToolbarAndBottomSheet {
         Toolbar toolbar = activity.findViewById(R.id.my_toolbar);
         activity.setSupportActionBar(toolbar);
 
-        // Set up the 'Home' text to navigate to MainActivity.
+        // Set up the 'Home' text to return to the product list, and the cart icon to open
+        // the cart. Both reuse the screen if it is already on the back stack.
         TextView homeText = toolbar.findViewById(R.id.home_text);
-        homeText.setOnClickListener(view -> {
-            Intent homeIntent = new Intent(activity, MainActivity.class);
-            activity.startActivity(homeIntent);
-        });
-
-        // Set up the cart icon to navigate to CartActivity.
+        homeText.setOnClickListener(view -> navigate(activity, R.id.action_global_product_list));
         ImageView cartIcon = toolbar.findViewById(R.id.cart_icon);
-        cartIcon.setOnClickListener(view -> {
-            Intent cartIntent = new Intent(activity, CartActivity.class);
-            activity.startActivity(cartIntent);
+        cartIcon.setOnClickListener(view -> navigate(activity, R.id.action_global_cart));
+
+        // Keep the cart badge in sync with the cart for as long as the activity lives.
+        TextView cartBadge = toolbar.findViewById(R.id.cart_badge_textview);
+        updateCartBadge(cartBadge);
+        Cart.CartListener cartBadgeListener = new Cart.CartListener() {
+            @Override
+            public void onCartChanged() {
+                cartBadge.post(() -> updateCartBadge(cartBadge));
+            }
+        };
+        Cart.getInstance().addListener(cartBadgeListener);
+        activity.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onPause(@NonNull LifecycleOwner owner) {
+                // Don't hold batched cart events while the app may be going away.
+                EventBatcher.getInstance(activity).flush();
+            }
+
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner owner) {
+                Cart.getInstance().removeListener(cartBadgeListener);
+            }
         });
 
         // Get references to bottom sheet views.
         LinearLayout bottomSheet = activity.findViewById(R.id.bottom_sheet);
-        TextView eventJsonTextView = activity.findViewById(R.id.event_json_textview);
+        LinearLayout eventInspector = activity.findViewById(R.id.event_inspector);
         ImageView arrowIcon = activity.findViewById(R.id.arrow_icon);
 
         // Set the initial state of the bottom sheet (collapsed).
-        eventJsonTextView.setVisibility(View.GONE);
+        eventInspector.setVisibility(View.GONE);
         arrowIcon.setImageResource(R.drawable.down_arrow);
 
+        // Set up the recycled list of event JSONs and its event name filter.
+        RecyclerView eventRecyclerView = activity.findViewById(R.id.event_json_recyclerview);
+        EventInspectorAdapter eventInspectorAdapter = new EventInspectorAdapter(MyApplication.eventLog);
+        eventRecyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        eventRecyclerView.setAdapter(eventInspectorAdapter);
+
+        EditText eventFilterEditText = activity.findViewById(R.id.event_filter_edittext);
+        eventFilterEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence text, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence text, int start, int before, int count) {
+                eventInspectorAdapter.setFilter(text.toString());
+            }
+
+            @Override
+            public void afterTextChanged(Editable editable) {
+            }
+        });
+
+        // Switch between the event list and the metrics.
+        LinearLayout eventsPage = activity.findViewById(R.id.events_page);
+        LinearLayout metricsPage = activity.findViewById(R.id.metrics_page);
+        TextView eventsTab = activity.findViewById(R.id.events_tab);
+        TextView metricsTab = activity.findViewById(R.id.metrics_tab);
+        eventsTab.setOnClickListener(view -> {
+            eventsPage.setVisibility(View.VISIBLE);
+            metricsPage.setVisibility(View.GONE);
+            eventsTab.setAlpha(1f);
+            metricsTab.setAlpha(0.6f);
+            // Catch up on events recorded while the metrics were shown.
+            eventInspectorAdapter.refresh();
+        });
+        metricsTab.setOnClickListener(view -> {
+            eventsPage.setVisibility(View.GONE);
+            metricsPage.setVisibility(View.VISIBLE);
+            eventsTab.setAlpha(0.6f);
+            metricsTab.setAlpha(1f);
+            updateMetrics(activity);
+        });
+
+        // Share a snapshot of all metrics as JSON, e.g. to compare runs offline.
+        Button exportMetricsButton = activity.findViewById(R.id.export_metrics_button);
+        exportMetricsButton.setOnClickListener(view -> {
+            Intent shareIntent = new Intent(Intent.ACTION_SEND);
+            shareIntent.setType("application/json");
+            shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Metrics snapshot");
+            shareIntent.putExtra(Intent.EXTRA_TEXT, Metrics.getInstance().snapshot().toJson());
+            activity.startActivity(Intent.createChooser(shareIntent, "Export metrics"));
+        });
+
         // Get screen dimensions to calculate animation heights.
         DisplayMetrics displayMetrics = new DisplayMetrics();
         activity.getWindowManager().getDefaultDisplay().getMetrics(displayMetrics);
@@ -107,7 +166,7 @@ public class ToolbarAndBottomSheet {
 
         // Set the click listener to expand or collapse the bottom sheet.
         bottomSheet.setOnClickListener(view -> {
-            if (eventJsonTextView.getVisibility() == View.GONE) {
+            if (eventInspector.getVisibility() == View.GONE) {
                 // Expand with animation.
                 ValueAnimator animator = ValueAnimator.ofInt(bottomSheet.getHeight(), screenHeight * 4 / 10);
                 animator.addUpdateListener(valueAnimator -> {
@@ -118,15 +177,15 @@ public class ToolbarAndBottomSheet {
                 animator.setDuration(300);
                 animator.start();
 
-                eventJsonTextView.setVisibility(View.VISIBLE);
+                eventInspector.setVisibility(View.VISIBLE);
                 arrowIcon.setImageResource(R.drawable.up_arrow);
 
-                // Populate the bottom sheet with event JSONs.
-                LinearLayout eventJsonWrapper = activity.findViewById(R.id.event_json_wrapper);
-                eventJsonWrapper.removeAllViews(); // Clear previous views.
-                for (String jsonString : MyApplication.eventJsonList) {
-                    TextView jsonTextView = generateJsonTextView(activity, jsonString);
-                    eventJsonWrapper.addView(jsonTextView);
+                if (metricsPage.getVisibility() == View.VISIBLE) {
+                    updateMetrics(activity);
+                } else {
+                    // Catch up on events recorded while the bottom sheet was collapsed.
+                    eventInspectorAdapter.refresh();
+                    eventRecyclerView.scrollToPosition(0);
                 }
             } else {
                 // Collapse with animation.
@@ -139,83 +198,116 @@ public class ToolbarAndBottomSheet {
                 animator.setDuration(300);
                 animator.start();
 
-                eventJsonTextView.setVisibility(View.GONE);
+                eventInspector.setVisibility(View.GONE);
                 arrowIcon.setImageResource(R.drawable.down_arrow);
             }
         });
 
-        // Set the current activity as the event listener.
-        setEventListener((EventListener) activity);
+        // Show captured events while the activity lives; the bus doesn't retain it.
+        EventBus.getInstance().subscribe(activity, EventRecord.class, record -> activity.runOnUiThread(() -> {
+            if (!activity.isDestroyed()) {
+                notifyEventRecorded(activity);
+            }
+        }));
     }
 
     /**
-     * Adds an event to the display list in the bottom sheet.
+     * Navigates the activity's navigation host.
+     * @param activity The activity hosting the navigation graph.
+     * @param actionId The navigation action to take.
+     */
+    private static void navigate(AppCompatActivity activity, int actionId) {
+        NavHostFragment navHostFragment = (NavHostFragment) activity.getSupportFragmentManager()
+                .findFragmentById(R.id.nav_host_fragment);
+        if (navHostFragment != null) {
+            navHostFragment.getNavController().navigate(actionId);
+        }
+    }
+
+    /**
+     * Shows the startup timings and the current value of every metric in the Metrics tab.
      * @param activity The current activity.
+     */
+    private static void updateMetrics(AppCompatActivity activity) {
+        TextView startupTimingsTextView = activity.findViewById(R.id.startup_timings_textview);
+        TextView metricsTextView = activity.findViewById(R.id.metrics_textview);
+        startupTimingsTextView.setText(MyApplication.startup.formatTimings());
+        metricsTextView.setText(Metrics.getInstance().snapshot().format());
+    }
+
+    /**
+     * Shows the number of items in the cart on the toolbar badge, hiding it when empty.
+     * @param cartBadge The badge view.
+     */
+    private static void updateCartBadge(TextView cartBadge) {
+        int itemCount = Cart.getInstance().getItemCount();
+        cartBadge.setText(String.valueOf(itemCount));
+        cartBadge.setVisibility(itemCount > 0 ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * Captures an event: serializes it, adds it to the global event log and publishes
+     * the resulting {@link EventRecord} on the {@link EventBus}, where the bottom sheet
+     * and the event outbox pick it up. Events are stored compact and only pretty-printed
+     * when displayed. Safe to call from the event dispatcher's worker thread.
      * @param eventName The name of the event.
      * @param params The parameters of the event.
+     * @return The JSON string that was captured.
      */
-    public static void addEventToJsonList(AppCompatActivity activity, String eventName, Bundle params) {
-        if (eventListener != null) {
-            eventListener.onEvent(eventName, params);
-        }
+    public static String recordEvent(String eventName, Bundle params) {
+        long serializeStart = System.nanoTime();
+        String jsonString = EventJsonSerializer.compact().toJson(eventName, params);
+        SERIALIZE_TIME.recordSince(serializeStart);
+        SERIALIZED_CHARS.add(jsonString.length());
+        EventRecord record = MyApplication.eventLog.add(eventName, jsonString);
+        EventBus.getInstance().publish(record);
+        return jsonString;
+    }
 
-        LinearLayout eventJsonWrapper = activity.findViewById(R.id.event_json_wrapper);
-        String jsonString = getDemoJson(eventName, params);
-        TextView jsonTextView = generateJsonTextView(activity, jsonString);
-        eventJsonWrapper.addView(jsonTextView);
+    /**
+     * Shows newly recorded events in the bottom sheet. Rows are only updated while the
+     * sheet is expanded on the Events tab; otherwise the list catches up when it is next shown.
+     * Must be called on the main thread.
+     * @param activity The current activity.
+     */
+    private static void notifyEventRecorded(AppCompatActivity activity) {
+        LinearLayout eventInspector = activity.findViewById(R.id.event_inspector);
+        RecyclerView eventRecyclerView = activity.findViewById(R.id.event_json_recyclerview);
+        if (eventInspector == null || eventInspector.getVisibility() != View.VISIBLE) {
+            return;
+        }
+        LinearLayout metricsPage = activity.findViewById(R.id.metrics_page);
+        if (metricsPage.getVisibility() == View.VISIBLE) {
+            updateMetrics(activity);
+            return;
+        }
+        EventInspectorAdapter adapter = (EventInspectorAdapter) eventRecyclerView.getAdapter();
+        if (adapter != null) {
+            adapter.onEventsAdded();
+        }
     }
 
     /**
-     * Converts an event name and its parameters into a pretty-printed JSON string.
+     * Converts an event name and its parameters into a JSON string.
+     * Debug builds produce pretty-printed output, release builds compact output.
      * @param eventName The name of the event.
      * @param params The Bundle of event parameters.
      * @return A formatted JSON string.
      */
     public static String getDemoJson(String eventName, Bundle params) {
-        JsonObject jsonObject = new JsonObject();
-        jsonObject.addProperty("event_name", eventName);
-        JsonObject paramsJson = new JsonObject();
-        for (String key : params.keySet()) {
-            paramsJson.addProperty(key, String.valueOf(params.get(key)));
-        }
-        jsonObject.add("params", paramsJson);
-
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        return gson.toJson(jsonObject);
+        return EventJsonSerializer.getInstance().toJson(eventName, params);
     }
 
     /**
-     * Concatenates all event JSON strings from the global list.
+     * Concatenates all event JSON strings from the global log, newest first.
      * @param activity The current activity.
      * @return A single string containing all event JSONs.
      */
     public static String getJsonText(AppCompatActivity activity) {
         StringBuilder sb = new StringBuilder();
-        for (String jsonString : MyApplication.eventJsonList) {
-            sb.append(jsonString + "\n");
+        for (EventRecord record : MyApplication.eventLog.snapshot()) {
+            sb.append(record.getJson()).append('\n');
         }
         return sb.toString();
     }
-
-    /**
-     * Creates and styles a TextView to display a JSON string.
-     * @param activity The current activity.
-     * @param jsonString The JSON string to display.
-     * @return A styled TextView.
-     */
-    private static TextView generateJsonTextView(AppCompatActivity activity, String jsonString) {
-        TextView eventJsonTextView = new TextView(activity);
-        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT
-        );
-        params.setMargins(10, 10, 10, 10);
-        eventJsonTextView.setLayoutParams(params);
-        eventJsonTextView.setText(jsonString);
-        eventJsonTextView.setTextColor(Color.WHITE);
-        eventJsonTextView.setBackgroundColor(Color.parseColor("#1e1628"));
-        eventJsonTextView.setPadding(15, 10, 15, 10);
-        eventJsonTextView.setAlpha(0.7f);
-        return eventJsonTextView;
-    }
 }
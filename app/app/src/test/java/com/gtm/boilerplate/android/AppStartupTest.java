@@ -0,0 +1,189 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Looper;
+import android.view.ViewTreeObserver;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the startup orchestration through a Robolectric application and activity, and
+ * checks when and on which thread each component is created.
+ */
+@RunWith(RobolectricTestRunner.class)
+// A bare Application, so the test controls every component that is registered. SDK 35
+// sandboxes need Java 21, so run on 34.
+@Config(application = Application.class, sdk = 34)
+public class AppStartupTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final List<String> created = Collections.synchronizedList(new ArrayList<>());
+    private Application application;
+    private AppStartup startup;
+
+    @Before
+    public void setUp() {
+        application = RuntimeEnvironment.getApplication();
+        startup = new AppStartup();
+    }
+
+    @Test
+    public void createsComponentsInModeOrder() throws Exception {
+        AppStartup.Component<String> lazy = startup.register("lazy", AppStartup.Mode.LAZY, () -> create("lazy"));
+        AppStartup.Component<String> deferred = startup.register("deferred", AppStartup.Mode.AFTER_FIRST_DRAW,
+                () -> create("deferred"));
+        AppStartup.Component<String> eager = startup.register("eager", AppStartup.Mode.EAGER, () -> create("eager"));
+
+        startup.start(application);
+
+        assertEquals(Collections.singletonList("eager"), created);
+        assertEquals("eager", eager.getIfCreated());
+        assertNull(deferred.getIfCreated());
+        assertEquals(-1, startup.getFirstDrawMillis());
+
+        drawFirstFrame();
+        awaitTimings(2);
+
+        assertEquals(List.of("eager", "deferred"), created);
+        assertTrue(startup.getFirstDrawMillis() >= 0);
+        assertNull(lazy.getIfCreated());
+
+        assertEquals("lazy", lazy.get());
+        assertEquals(List.of("eager", "deferred", "lazy"), created);
+    }
+
+    @Test
+    public void createsDependenciesFirst() {
+        AppStartup.Component<String> config = startup.register("config", AppStartup.Mode.LAZY, () -> create("config"));
+        AppStartup.Component<String> storage = startup.register("storage", AppStartup.Mode.AFTER_FIRST_DRAW,
+                () -> create("storage"), config);
+        startup.register("cart", AppStartup.Mode.EAGER, () -> create("cart"), storage);
+
+        startup.start(application);
+
+        // The eager component pulls its dependencies onto the main thread, before itself.
+        assertEquals(List.of("config", "storage", "cart"), created);
+        assertEquals("storage", storage.getIfCreated());
+        List<AppStartup.Timing> timings = startup.getTimings();
+        assertEquals(3, timings.size());
+        for (AppStartup.Timing timing : timings) {
+            assertEquals(Looper.getMainLooper().getThread().getName(), timing.getThreadName());
+        }
+    }
+
+    @Test
+    public void createsEachComponentOnce() throws Exception {
+        AppStartup.Component<String> shared = startup.register("shared", AppStartup.Mode.AFTER_FIRST_DRAW,
+                () -> create("shared"));
+        startup.register("first", AppStartup.Mode.EAGER, () -> create("first"), shared);
+        startup.register("second", AppStartup.Mode.EAGER, () -> create("second"), shared);
+
+        startup.start(application);
+        drawFirstFrame();
+        // Nothing is left for the background thread to create.
+        Thread.sleep(100);
+
+        assertEquals(List.of("shared", "first", "second"), created);
+        assertEquals(3, startup.getTimings().size());
+    }
+
+    @Test
+    public void recordsTimings() throws Exception {
+        startup.register("eager", AppStartup.Mode.EAGER, () -> {
+            Thread.sleep(20);
+            return create("eager");
+        });
+        startup.register("deferred", AppStartup.Mode.AFTER_FIRST_DRAW, () -> create("deferred"));
+        AppStartup.Component<Object> failing = startup.register("failing", AppStartup.Mode.LAZY, () -> {
+            throw new IllegalStateException("No network");
+        });
+
+        startup.start(application);
+        drawFirstFrame();
+        awaitTimings(2);
+        assertNull(failing.get());
+
+        List<AppStartup.Timing> timings = startup.getTimings();
+        assertEquals(3, timings.size());
+
+        AppStartup.Timing eager = timings.get(0);
+        assertEquals("eager", eager.getName());
+        assertSame(AppStartup.Mode.EAGER, eager.getMode());
+        assertTrue(eager.getDurationMicros() >= 20_000);
+        assertTrue(eager.getStartMillis() >= 0);
+
+        AppStartup.Timing deferred = timings.get(1);
+        assertEquals("deferred", deferred.getName());
+        assertSame(AppStartup.Mode.AFTER_FIRST_DRAW, deferred.getMode());
+        assertEquals("app-startup", deferred.getThreadName());
+        assertNotEquals(eager.getThreadName(), deferred.getThreadName());
+
+        // A failed creation is still timed, and reported as a missing value.
+        AppStartup.Timing failed = timings.get(2);
+        assertEquals("failing", failed.getName());
+        assertSame(AppStartup.Mode.LAZY, failed.getMode());
+
+        String text = startup.formatTimings();
+        assertTrue(text, text.startsWith("First draw: "));
+        assertTrue(text, text.contains("eager: "));
+        assertTrue(text, text.contains("on app-startup (after_first_draw)"));
+    }
+
+    private String create(String name) {
+        created.add(name);
+        return name;
+    }
+
+    /**
+     * Resumes an activity and dispatches its first frame, then runs what startup posted.
+     */
+    private void drawFirstFrame() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        ViewTreeObserver observer = activity.getWindow().getDecorView().getViewTreeObserver();
+        // Robolectric doesn't render, so dispatch the draw the way the view hierarchy would.
+        ReflectionHelpers.callInstanceMethod(observer, "dispatchOnDraw");
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private void awaitTimings(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (startup.getTimings().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, startup.getTimings().size());
+    }
+}
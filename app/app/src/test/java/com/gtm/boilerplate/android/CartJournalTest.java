@@ -0,0 +1,241 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+/**
+ * Round-trips the cart through its journal and recovers from torn or corrupt journals.
+ */
+public class CartJournalTest {
+    private static final int APP_VERSION_CODE = 1;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Cart cart = Cart.getInstance();
+    private File file;
+    private CartJournal journal;
+
+    @Before
+    public void setUp() throws Exception {
+        cart.clearCart();
+        file = new File(folder.getRoot(), "cart.journal");
+        journal = open(APP_VERSION_CODE);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        cart.clearCart();
+    }
+
+    @Test
+    public void restoresTheCartAfterRestart() throws Exception {
+        cart.addItem(product(1), 2);
+        cart.addItem(product(2));
+        cart.addItem(product(3));
+        cart.setQuantity("p1", 5);
+        cart.removeItem("p2");
+
+        restart(APP_VERSION_CODE);
+
+        List<CartLine> lines = cart.getSnapshot().getLines();
+        assertEquals(2, lines.size());
+        assertLine(lines.get(0), 1, 5);
+        assertLine(lines.get(1), 3, 1);
+        assertEquals(5 * product(1).getPriceCents() + product(3).getPriceCents(), cart.getSubtotalCents());
+    }
+
+    @Test
+    public void restoresAnEmptyCartAfterClear() throws Exception {
+        cart.addItem(product(1));
+        cart.clearCart();
+        cart.addItem(product(2));
+
+        restart(APP_VERSION_CODE);
+
+        assertEquals(1, cart.getLineCount());
+        assertLine(cart.getSnapshot().getLines().get(0), 2, 1);
+    }
+
+    @Test
+    public void keepsChangesMadeBeforeTheRestoreCompletes() throws Exception {
+        cart.addItem(product(1), 3);
+        journal.awaitIdle();
+        journal.close();
+        cart.clearCart();
+
+        // The in-memory line wins over the persisted one.
+        cart.addItem(product(1), 7);
+        journal = open(APP_VERSION_CODE);
+
+        assertEquals(7, cart.findLine("p1").getQuantity());
+        restart(APP_VERSION_CODE);
+        assertEquals(7, cart.findLine("p1").getQuantity());
+    }
+
+    @Test
+    public void dropsATornLastRecord() throws Exception {
+        cart.addItem(product(1));
+        cart.addItem(product(2));
+        journal.awaitIdle();
+        cart.addItem(product(3));
+        journal.awaitIdle();
+        journal.close();
+        cart.clearCart();
+
+        // A crash in the middle of writing the last record.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        journal = open(APP_VERSION_CODE);
+
+        assertEquals(2, cart.getLineCount());
+        assertNull(cart.findLine("p3"));
+        // The journal keeps working after the tail was cut off.
+        cart.addItem(product(4));
+        restart(APP_VERSION_CODE);
+        assertEquals(3, cart.getLineCount());
+        assertLine(cart.getSnapshot().getLines().get(2), 4, 1);
+    }
+
+    @Test
+    public void stopsAtACorruptRecord() throws Exception {
+        cart.addItem(product(1));
+        journal.awaitIdle();
+        long validLength = file.length();
+        cart.addItem(product(2));
+        cart.addItem(product(3));
+        journal.awaitIdle();
+        journal.close();
+        cart.clearCart();
+
+        // Flip a byte in the payload of the second record; its checksum no longer matches.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(validLength + 12);
+            int value = raf.read();
+            raf.seek(validLength + 12);
+            raf.write(value ^ 0xff);
+        }
+        journal = open(APP_VERSION_CODE);
+
+        assertEquals(1, cart.getLineCount());
+        assertLine(cart.getSnapshot().getLines().get(0), 1, 1);
+    }
+
+    @Test
+    public void discardsTheJournalOfAnotherAppVersion() throws Exception {
+        cart.addItem(product(1));
+
+        restart(APP_VERSION_CODE + 1);
+
+        assertEquals(0, cart.getLineCount());
+        cart.addItem(product(2));
+        restart(APP_VERSION_CODE + 1);
+        assertEquals(1, cart.getLineCount());
+        assertLine(cart.getSnapshot().getLines().get(0), 2, 1);
+    }
+
+    @Test
+    public void discardsAFileThatIsNotAJournal() throws Exception {
+        journal.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            raf.write("not a journal at all".getBytes("UTF-8"));
+        }
+        journal = open(APP_VERSION_CODE);
+
+        assertEquals(0, cart.getLineCount());
+        cart.addItem(product(1));
+        restart(APP_VERSION_CODE);
+        assertEquals(1, cart.getLineCount());
+    }
+
+    @Test
+    public void compactsALongJournal() throws Exception {
+        cart.addItem(product(1));
+        for (int quantity = 2; quantity <= 1000; quantity++) {
+            cart.setQuantity("p1", quantity);
+        }
+        journal.awaitIdle();
+
+        // Without compaction the journal would hold 1,000 records of at least 8 bytes.
+        assertTrue("Journal is " + file.length() + " bytes", file.length() < 300 * 24);
+        restart(APP_VERSION_CODE);
+        assertEquals(1000, cart.findLine("p1").getQuantity());
+    }
+
+    @Test
+    public void restoresAThousandLines() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            cart.addItem(product(i), i % 5 + 1);
+        }
+
+        restart(APP_VERSION_CODE);
+
+        List<CartLine> lines = cart.getSnapshot().getLines();
+        assertEquals(1000, lines.size());
+        for (int i = 0; i < 1000; i++) {
+            assertLine(lines.get(i), i, i % 5 + 1);
+        }
+    }
+
+    private CartJournal open(int appVersionCode) throws Exception {
+        CartJournal opened = new CartJournal(cart, file, appVersionCode);
+        opened.awaitIdle();
+        return opened;
+    }
+
+    /**
+     * Simulates process death: stops journaling, empties the in-memory cart and restores it.
+     */
+    private void restart(int appVersionCode) throws Exception {
+        journal.awaitIdle();
+        journal.close();
+        cart.clearCart();
+        journal = open(appVersionCode);
+    }
+
+    private static Product product(int index) {
+        return new Product("p" + index, "Product " + index, "Category", 10 + index + 0.99,
+                1000 + index, "SKU-" + index);
+    }
+
+    private static void assertLine(CartLine line, int index, int quantity) {
+        Product expected = product(index);
+        Product actual = line.getProduct();
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getPriceCents(), actual.getPriceCents());
+        assertEquals(expected.getImageResource(), actual.getImageResource());
+        assertEquals(expected.getSku(), actual.getSku());
+        assertEquals(quantity, line.getQuantity());
+    }
+}
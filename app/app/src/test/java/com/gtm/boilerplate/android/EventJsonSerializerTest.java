@@ -0,0 +1,68 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import android.os.Bundle;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+/**
+ * Serializes event Bundles, and keeps the shared writer usable after a failed event.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class EventJsonSerializerTest {
+    @Test
+    public void writesParamsAndItems() {
+        // One key per Bundle, since Bundles don't keep insertion order.
+        Bundle item = new Bundle();
+        item.putLong("quantity", 2);
+        ArrayList<Bundle> items = new ArrayList<>();
+        items.add(item);
+        Bundle params = new Bundle();
+        params.putParcelableArrayList("items", items);
+
+        String json = new EventJsonSerializer(false).toJson("add_to_cart", params);
+
+        assertEquals("{\"event_name\":\"add_to_cart\",\"params\":{\"items\":[{\"quantity\":2}]}}", json);
+    }
+
+    @Test
+    public void recoversFromAFailedEvent() {
+        EventJsonSerializer serializer = new EventJsonSerializer(false);
+        Bundle broken = new Bundle();
+        broken.putString(null, "value");
+        try {
+            serializer.toJson("broken", broken);
+            fail("A null key can't be written");
+        } catch (NullPointerException expected) {
+            // The writer was left inside the params object.
+        }
+
+        Bundle params = new Bundle();
+        params.putString("currency", "USD");
+        assertEquals("{\"event_name\":\"view_cart\",\"params\":{\"currency\":\"USD\"}}",
+                serializer.toJson("view_cart", params));
+    }
+}
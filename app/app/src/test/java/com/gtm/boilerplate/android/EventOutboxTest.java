@@ -0,0 +1,352 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Appends, reads and acknowledges events, and recovers the outbox from damaged segments.
+ */
+public class EventOutboxTest {
+    // Segment header and record header sizes, see the EventOutbox segment layout.
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_OVERHEAD = 8;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private EventOutbox outbox;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("outbox");
+        outbox = open();
+    }
+
+    @After
+    public void tearDown() {
+        outbox.close();
+    }
+
+    @Test
+    public void readsEventsUntilTheyAreAcknowledged() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            outbox.append(1_000 + i, "event_" + i, json(i));
+        }
+
+        List<EventRecord> events = outbox.read(3);
+        assertEquals(3, events.size());
+        for (int i = 0; i < 3; i++) {
+            assertEvent(events.get(i), i);
+        }
+        // Reading doesn't move the cursor.
+        assertEquals(0, outbox.read(3).get(0).getSequence());
+
+        outbox.acknowledge(2);
+        events = outbox.read(10);
+        assertEquals(2, events.size());
+        assertEvent(events.get(0), 3);
+        assertEvent(events.get(1), 4);
+
+        outbox.acknowledge(4);
+        assertTrue(outbox.read(10).isEmpty());
+        assertEquals(5, outbox.getAppendedCount());
+        assertEquals(0, outbox.getDroppedCount());
+    }
+
+    @Test
+    public void resumesFromThePersistedCursorAfterReopen() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            outbox.append(1_000 + i, "event_" + i, json(i));
+        }
+        outbox.awaitIdle();
+        outbox.acknowledge(1);
+
+        reopen();
+
+        List<EventRecord> events = outbox.read(10);
+        assertEquals(1, events.size());
+        assertEvent(events.get(0), 2);
+        // New events continue the sequence.
+        outbox.append(1_003, "event_3", json(3));
+        events = outbox.read(10);
+        assertEquals(2, events.size());
+        assertEvent(events.get(1), 3);
+    }
+
+    @Test
+    public void neverReusesTheSequenceOfAnAcknowledgedEvent() throws Exception {
+        outbox.append(1_000, "event_0", json(0));
+        outbox.append(1_001, "event_1", json(1));
+        outbox.awaitIdle();
+        outbox.acknowledge(1);
+
+        reopen();
+
+        outbox.append(1_002, "event_2", json(2));
+        List<EventRecord> events = outbox.read(10);
+        assertEquals(1, events.size());
+        assertEvent(events.get(0), 2);
+    }
+
+    @Test
+    public void cutsTheLogAtACorruptRecord() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            outbox.append(1_000 + i, "event_" + i, json(i));
+        }
+        outbox.awaitIdle();
+        outbox.close();
+
+        File segment = onlySegment();
+        int second = HEADER_SIZE + recordSize(0);
+        int third = second + recordSize(1);
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            // Flip a byte in the middle of the second payload; its checksum no longer matches.
+            raf.seek(second + RECORD_OVERHEAD + 20);
+            int value = raf.read();
+            raf.seek(second + RECORD_OVERHEAD + 20);
+            raf.write(value ^ 0xff);
+        }
+        outbox = open();
+
+        List<EventRecord> events = outbox.read(10);
+        assertEquals(1, events.size());
+        assertEvent(events.get(0), 0);
+        // The records after the corrupt one are zeroed, not resurrected later.
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "r")) {
+            raf.seek(third);
+            assertEquals(0, raf.readInt());
+        }
+        // Appending resumes right after the last valid record.
+        outbox.append(2_000, "event_1", json(1));
+        reopen();
+        events = outbox.read(10);
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(1).getSequence());
+        assertEquals(2_000, events.get(1).getTimestampMillis());
+    }
+
+    @Test
+    public void dropsARecordTornByACrash() throws Exception {
+        outbox.append(1_000, "event_0", json(0));
+        outbox.append(1_001, "event_1", json(1));
+        outbox.awaitIdle();
+        outbox.close();
+
+        // The length of the last record reached disk, but not the end of its payload.
+        int second = HEADER_SIZE + recordSize(0);
+        try (RandomAccessFile raf = new RandomAccessFile(onlySegment(), "rw")) {
+            raf.seek(second + RECORD_OVERHEAD + recordSize(1) / 2);
+            raf.write(new byte[recordSize(1) / 2]);
+        }
+        outbox = open();
+
+        List<EventRecord> events = outbox.read(10);
+        assertEquals(1, events.size());
+        assertEvent(events.get(0), 0);
+    }
+
+    @Test
+    public void discardsATruncatedSegmentFile() throws Exception {
+        outbox.append(1_000, "event_0", json(0));
+        outbox.awaitIdle();
+        outbox.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(onlySegment(), "rw")) {
+            raf.setLength(EventOutbox.SEGMENT_SIZE / 2);
+        }
+        outbox = open();
+
+        assertTrue(outbox.read(10).isEmpty());
+        outbox.append(1_001, "event_1", json(1));
+        List<EventRecord> events = outbox.read(10);
+        assertEquals(1, events.size());
+        assertEquals(1_001, events.get(0).getTimestampMillis());
+    }
+
+    @Test
+    public void dropsTheOldestSegmentsBeyondTheLimit() throws Exception {
+        String json = largeJson();
+        for (int i = 0; i < 10; i++) {
+            outbox.append(i, "large", json);
+        }
+        outbox.awaitIdle();
+        outbox.acknowledge(4);
+        for (int i = 10; i < 200; i++) {
+            outbox.append(i, "large", json);
+        }
+        outbox.awaitIdle();
+
+        assertEquals(EventOutbox.MAX_SEGMENTS, segments().length);
+        List<EventRecord> remaining = outbox.read(Integer.MAX_VALUE);
+        long dropped = outbox.getDroppedCount();
+        assertTrue(dropped > 0);
+        // Only unacknowledged events count as dropped.
+        assertEquals(200, 5 + dropped + remaining.size());
+        assertEquals(5 + dropped, remaining.get(0).getSequence());
+        assertEquals(199, remaining.get(remaining.size() - 1).getSequence());
+        assertEquals(200, outbox.getAppendedCount());
+
+        // The cursor moved past the dropped events and survives a reopen.
+        reopen();
+        assertEquals(5 + dropped, outbox.read(1).get(0).getSequence());
+    }
+
+    @Test
+    public void compactsTheUnacknowledgedTailOfTheOldestSegment() throws Exception {
+        String json = largeJson();
+        for (int i = 0; i < 30; i++) {
+            outbox.append(i, "large", json);
+        }
+        outbox.awaitIdle();
+        File[] before = segments();
+        assertEquals(2, before.length);
+
+        // Less than half of the first segment: nothing is rewritten.
+        outbox.acknowledge(2);
+        assertEquals(0, outbox.getCompactionCount());
+        outbox.acknowledge(11);
+        assertEquals(1, outbox.getCompactionCount());
+
+        File[] after = segments();
+        assertEquals(2, after.length);
+        assertEquals(String.format("%020d.seg", 12), after[0].getName());
+        assertEquals(before[1], after[1]);
+        assertSequences(outbox.read(Integer.MAX_VALUE), 12, 29);
+
+        // The compacted segment is recovered like any other, and appending continues.
+        reopen();
+        assertSequences(outbox.read(Integer.MAX_VALUE), 12, 29);
+        outbox.append(30, "large", json);
+        assertSequences(outbox.read(Integer.MAX_VALUE), 12, 30);
+        assertEquals(0, outbox.getDroppedCount());
+    }
+
+    @Test
+    public void recoversFromACrashDuringCompaction() throws Exception {
+        String json = largeJson();
+        for (int i = 0; i < 30; i++) {
+            outbox.append(i, "large", json);
+        }
+        outbox.awaitIdle();
+        File original = segments()[0];
+        byte[] originalBytes = Files.readAllBytes(original.toPath());
+        outbox.acknowledge(11);
+        assertEquals(1, outbox.getCompactionCount());
+        outbox.close();
+
+        // The crash came after the rename, before the original was deleted, and left an
+        // unfinished compaction behind too.
+        Files.write(original.toPath(), originalBytes);
+        Files.write(new File(directory, String.format("%020d.seg.tmp", 15)).toPath(), new byte[100]);
+        outbox = open();
+
+        File[] files = segments();
+        assertEquals(2, files.length);
+        assertEquals(String.format("%020d.seg", 12), files[0].getName());
+        assertEquals(0, directory.listFiles((dir, name) -> name.endsWith(".tmp")).length);
+        assertSequences(outbox.read(Integer.MAX_VALUE), 12, 29);
+        outbox.append(30, "large", json);
+        assertSequences(outbox.read(Integer.MAX_VALUE), 12, 30);
+    }
+
+    @Test
+    public void appendsWithGroupCommit() throws Exception {
+        // About 4 MB of events, within MAX_SEGMENTS.
+        int count = 50_000;
+        for (int i = 0; i < count; i++) {
+            outbox.append(i, "add_to_cart", json(i));
+        }
+        outbox.awaitIdle();
+
+        assertEquals(count, outbox.getAppendedCount());
+        assertEquals(0, outbox.getDroppedCount());
+        // Events queued during a write share its fsync.
+        assertTrue(outbox.getBatchCount() < count);
+    }
+
+    private EventOutbox open() throws Exception {
+        EventOutbox opened = new EventOutbox(directory);
+        opened.awaitIdle();
+        return opened;
+    }
+
+    private void reopen() throws Exception {
+        outbox.awaitIdle();
+        outbox.close();
+        outbox = open();
+    }
+
+    private File[] segments() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".seg"));
+        Arrays.sort(files);
+        return files;
+    }
+
+    private File onlySegment() {
+        File[] files = segments();
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    /**
+     * @return The JSON of an event of about 60 KB; 17 of them fit in a segment.
+     */
+    private static String largeJson() {
+        char[] padding = new char[60_000];
+        Arrays.fill(padding, 'x');
+        return "{\"padding\":\"" + new String(padding) + "\"}";
+    }
+
+    private static void assertSequences(List<EventRecord> events, long first, long last) {
+        assertEquals(last - first + 1, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(first + i, events.get(i).getSequence());
+        }
+    }
+
+    private static String json(int index) {
+        return "{\"event_name\":\"event_" + index + "\",\"params\":{\"value\":" + index + "}}";
+    }
+
+    /**
+     * @return The size of the record of an event appended with {@link #json(int)}.
+     */
+    private static int recordSize(int index) {
+        return RECORD_OVERHEAD + 18 + ("event_" + index).length() + json(index).length();
+    }
+
+    private static void assertEvent(EventRecord event, int index) {
+        assertEquals(index, event.getSequence());
+        assertEquals(1_000 + index, event.getTimestampMillis());
+        assertEquals("event_" + index, event.getEventName());
+        assertEquals(json(index), event.getJson());
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Runs the sender against a local HTTP server that records the requests it receives.
+ */
+public class MeasurementProtocolSenderTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+    // Status codes to reply with, in order; 204 once empty.
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private EventOutbox outbox;
+    private MeasurementProtocolSender sender;
+
+    private static class RecordedRequest {
+        final long timeMillis;
+        final InetSocketAddress remoteAddress;
+        final String query;
+        final String contentEncoding;
+        final List<String> hits;
+
+        RecordedRequest(long timeMillis, InetSocketAddress remoteAddress, String query,
+                String contentEncoding, List<String> hits) {
+            this.timeMillis = timeMillis;
+            this.remoteAddress = remoteAddress;
+            this.query = query;
+            this.contentEncoding = contentEncoding;
+            this.hits = hits;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        serverExecutor = Executors.newSingleThreadExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/g/collect", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+        outbox = new EventOutbox(folder.newFolder("outbox"));
+        sender = new MeasurementProtocolSender(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/g/collect",
+                "G-TEST", "client-1", outbox);
+    }
+
+    @After
+    public void tearDown() {
+        sender.stop();
+        outbox.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = readAll(exchange.getRequestBody());
+        String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        if ("gzip".equals(contentEncoding)) {
+            body = readAll(new GZIPInputStream(new ByteArrayInputStream(body)));
+        }
+        Integer status = statuses.poll();
+        requests.add(new RecordedRequest(System.currentTimeMillis(), exchange.getRemoteAddress(),
+                exchange.getRequestURI().getRawQuery(), contentEncoding,
+                Arrays.asList(new String(body, StandardCharsets.UTF_8).split("\n"))));
+        exchange.sendResponseHeaders(status != null ? status : 204, -1);
+        exchange.close();
+    }
+
+    @Test
+    public void sendsEventsInGzippedBatches() throws Exception {
+        appendViewItems(45);
+        sender.start();
+
+        awaitRequests(3);
+        awaitDrained();
+        assertEquals(3, requests.size());
+        assertEquals(20, requests.get(0).hits.size());
+        assertEquals(20, requests.get(1).hits.size());
+        assertEquals(5, requests.get(2).hits.size());
+        for (RecordedRequest request : requests) {
+            assertEquals("gzip", request.contentEncoding);
+            assertEquals("v=2&tid=G-TEST&cid=client-1", request.query);
+        }
+        String first = requests.get(0).hits.get(0);
+        assertTrue(first, first.startsWith("en=view_item&sid="));
+        assertTrue(first, first.contains("&_ss=1"));
+        assertTrue(first, first.contains("&cu=USD"));
+        assertTrue(first, first.contains("&epn.value=10.0"));
+        assertTrue(first, first.contains("&pr1=idsku-0%7EnmShirt%7Eqt1"));
+        assertEquals(45, sender.getSentHitCount());
+        assertEquals(3, sender.getRequestCount());
+    }
+
+    @Test
+    public void reusesTheConnectionBetweenRequests() throws Exception {
+        appendViewItems(3 * MeasurementProtocolSender.MAX_HITS_PER_REQUEST);
+        sender.start();
+
+        awaitRequests(3);
+        InetSocketAddress remoteAddress = requests.get(0).remoteAddress;
+        for (RecordedRequest request : requests) {
+            assertEquals(remoteAddress, request.remoteAddress);
+        }
+    }
+
+    @Test
+    public void retriesServerErrorsWithBackoff() throws Exception {
+        statuses.add(503);
+        statuses.add(503);
+        appendViewItems(1);
+        sender.start();
+
+        awaitRequests(3);
+        awaitDrained();
+        // Jitter randomizes half of the 1s and 2s backoffs.
+        assertTrue(requests.get(1).timeMillis - requests.get(0).timeMillis >= 500);
+        assertTrue(requests.get(2).timeMillis - requests.get(1).timeMillis >= 1000);
+        // The retried hit is identical, including its session.
+        assertEquals(requests.get(0).hits, requests.get(1).hits);
+        assertEquals(requests.get(0).hits, requests.get(2).hits);
+        assertEquals(2, sender.getFailedRequestCount());
+        assertEquals(1, sender.getSentHitCount());
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() throws Exception {
+        statuses.add(400);
+        appendViewItems(2);
+        sender.start();
+
+        awaitRequests(1);
+        awaitDrained();
+        assertEquals(1, requests.size());
+        assertEquals(2, sender.getRejectedHitCount());
+        assertEquals(0, sender.getSentHitCount());
+    }
+
+    @Test
+    public void skipsEventsThatCannotBeConverted() throws Exception {
+        // The lenient serializer writes non-finite doubles as bare literals.
+        outbox.append(1_000, "broken", "{\"event_name\":\"broken\",\"params\":{\"value\":NaN}}");
+        outbox.append(2_000, "add_to_cart", "{\"event_name\":\"add_to_cart\",\"params\":"
+                + "{\"items\":[{\"item_id\":\"sku-1\",\"item_variant\":true,\"quantity\":2}]}}");
+        sender.start();
+
+        awaitRequests(1);
+        awaitDrained();
+        assertEquals(1, requests.get(0).hits.size());
+        String hit = requests.get(0).hits.get(0);
+        assertTrue(hit, hit.startsWith("en=add_to_cart&"));
+        assertTrue(hit, hit.contains("&pr1=idsku-1%7Evatrue%7Eqt2"));
+        assertEquals(1, sender.getRejectedHitCount());
+        assertEquals(1, sender.getSentHitCount());
+        assertEquals(0, sender.getFailedRequestCount());
+    }
+
+    @Test
+    public void acknowledgesBatchesWithoutConvertibleEvents() throws Exception {
+        outbox.append(1_000, "broken", "{\"event_name\":\"broken\",\"params\":{\"value\":Infinity}}");
+        sender.start();
+
+        awaitDrained();
+        assertEquals(0, sender.getRequestCount());
+        assertEquals(1, sender.getRejectedHitCount());
+    }
+
+    private void appendViewItems(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            outbox.append(1_000 + i, "view_item", "{\"event_name\":\"view_item\",\"params\":"
+                    + "{\"currency\":\"USD\",\"value\":10.0,\"items\":"
+                    + "[{\"item_id\":\"sku-" + i + "\",\"item_name\":\"Shirt\",\"quantity\":1}]}}");
+        }
+        outbox.awaitIdle();
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (requests.size() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Expected " + count + " requests, got " + requests.size());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitDrained() throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!outbox.read(1).isEmpty()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The outbox was not drained");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
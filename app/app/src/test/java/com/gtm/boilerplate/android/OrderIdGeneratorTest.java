@@ -0,0 +1,127 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks that order IDs are well formed, unique across threads and strictly increasing.
+ */
+public class OrderIdGeneratorTest {
+    private static final long NODE_ID = 0x12_3456_789AL;
+
+    @Test
+    public void generatesWellFormedIds() {
+        OrderIdGenerator generator = new OrderIdGenerator(NODE_ID);
+        String id = generator.next();
+
+        assertEquals(OrderIdGenerator.LENGTH, id.length());
+        assertTrue(id, id.matches("[0-9A-HJKMNP-TV-Z]+"));
+        // The node ID of the install is the same in every ID, and differs between installs.
+        assertEquals(id.substring(13), generator.next().substring(13));
+        assertNotEquals(id.substring(13), new OrderIdGenerator(NODE_ID + 1).next().substring(13));
+    }
+
+    @Test
+    public void sortsByCreationTime() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        String earlier = new OrderIdGenerator(NODE_ID, clock::get).next();
+        clock.addAndGet(1);
+        // A generator of another install, created later, still sorts after.
+        String later = new OrderIdGenerator(0, clock::get).next();
+
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    public void keepsIncreasingWhenTheClockGoesBackwards() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        OrderIdGenerator generator = new OrderIdGenerator(NODE_ID, clock::get);
+        String previous = generator.next();
+        long[] steps = {0, -1, -60_000, 0, 1, 60_000, -1};
+
+        for (long step : steps) {
+            clock.addAndGet(step);
+            for (int i = 0; i < 3; i++) {
+                String id = generator.next();
+                assertTrue(previous + " >= " + id, previous.compareTo(id) < 0);
+                previous = id;
+            }
+        }
+    }
+
+    @Test
+    public void keepsIncreasingWhenASequenceIsUsedUp() {
+        // More IDs than the 16-bit sequence of a single millisecond holds.
+        OrderIdGenerator generator = new OrderIdGenerator(NODE_ID, () -> 1_700_000_000_000L);
+        String previous = generator.next();
+
+        for (int i = 0; i < 100_000; i++) {
+            String id = generator.next();
+            assertTrue(previous + " >= " + id, previous.compareTo(id) < 0);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void generatesUniqueIdsFromManyThreads() throws Exception {
+        int threads = 8;
+        int idsPerThread = 100_000;
+        OrderIdGenerator generator = new OrderIdGenerator(NODE_ID);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<String[]>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    String[] ids = new String[idsPerThread];
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids[i] = generator.next();
+                    }
+                    return ids;
+                });
+            }
+            List<Future<String[]>> results = executor.invokeAll(tasks);
+
+            Set<String> unique = new HashSet<>(threads * idsPerThread * 2);
+            for (Future<String[]> result : results) {
+                String[] ids = result.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue("Duplicate " + ids[i], unique.add(ids[i]));
+                    if (i > 0) {
+                        assertTrue(ids[i - 1] + " >= " + ids[i], ids[i - 1].compareTo(ids[i]) < 0);
+                    }
+                }
+            }
+            assertEquals(threads * idsPerThread, unique.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that a checkout of the same cart reuses its order ID until the purchase is
+ * logged, also across a reopen, and that a changed cart gets a new one.
+ */
+public class PendingOrderTest {
+    private static final long NODE_ID = 0x12_3456_789AL;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private OrderIdGenerator generator;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "pending-order");
+        generator = new OrderIdGenerator(NODE_ID);
+    }
+
+    @Test
+    public void reusesTheIdOfTheSameCartUntilAcknowledged() {
+        PendingOrder pendingOrder = new PendingOrder(file, generator);
+        String orderId = pendingOrder.orderIdFor(cart(1, 2));
+
+        assertEquals(orderId, pendingOrder.orderIdFor(cart(1, 2)));
+
+        pendingOrder.acknowledge(orderId);
+        assertNotEquals(orderId, pendingOrder.orderIdFor(cart(1, 2)));
+    }
+
+    @Test
+    public void givesAChangedCartANewId() {
+        PendingOrder pendingOrder = new PendingOrder(file, generator);
+        String orderId = pendingOrder.orderIdFor(cart(1, 2));
+
+        assertNotEquals(orderId, pendingOrder.orderIdFor(cart(1, 3)));
+        assertNotEquals(orderId, pendingOrder.orderIdFor(cart(2, 1)));
+        assertNotEquals(orderId, pendingOrder.orderIdFor(cart(1, 2, 3, 1)));
+    }
+
+    @Test
+    public void keepsThePendingIdAcrossAReopen() {
+        String orderId = new PendingOrder(file, generator).orderIdFor(cart(1, 2));
+
+        PendingOrder reopened = new PendingOrder(file, generator);
+        assertEquals(orderId, reopened.orderIdFor(cart(1, 2)));
+
+        reopened.acknowledge(orderId);
+        assertNotEquals(orderId, new PendingOrder(file, generator).orderIdFor(cart(1, 2)));
+    }
+
+    @Test
+    public void ignoresTheAcknowledgementOfAnotherOrder() {
+        PendingOrder pendingOrder = new PendingOrder(file, generator);
+        String orderId = pendingOrder.orderIdFor(cart(1, 2));
+
+        pendingOrder.acknowledge(generator.next());
+        assertEquals(orderId, pendingOrder.orderIdFor(cart(1, 2)));
+    }
+
+    /**
+     * Builds a cart snapshot from pairs of product index and quantity.
+     */
+    private static CartSnapshot cart(int... indexesAndQuantities) {
+        List<CartLine> lines = new ArrayList<>();
+        long subtotalCents = 0;
+        int itemCount = 0;
+        for (int i = 0; i < indexesAndQuantities.length; i += 2) {
+            int index = indexesAndQuantities[i];
+            CartLine line = new CartLine(new Product("p" + index, "Product " + index, "Category",
+                    10 + index + 0.99, 1000 + index, "SKU-" + index), indexesAndQuantities[i + 1], i);
+            lines.add(line);
+            subtotalCents += line.getLineTotalCents();
+            itemCount += line.getQuantity();
+        }
+        return new CartSnapshot(lines, subtotalCents, itemCount);
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+/**
+ * Checks that duplicate transactions are dropped, also after a reopen and once out of
+ * the recent set, and that a false positive of the Bloom filter never drops a new one.
+ */
+public class PurchaseDeduplicatorTest {
+    private static final String PURCHASE = "purchase";
+    private static final String REFUND = "refund";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("transactions");
+    }
+
+    @Test
+    public void dropsRepeatedTransactions() {
+        PurchaseDeduplicator deduplicator = new PurchaseDeduplicator(directory);
+
+        assertFalse(deduplicator.isDuplicate(PURCHASE, "T1"));
+        assertTrue(deduplicator.isDuplicate(PURCHASE, "T1"));
+        // A refund of the purchase is another event.
+        assertFalse(deduplicator.isDuplicate(REFUND, "T1"));
+        assertTrue(deduplicator.isDuplicate(REFUND, "T1"));
+        assertEquals(4, deduplicator.getCheckedCount());
+        assertEquals(2, deduplicator.getDroppedCount());
+    }
+
+    @Test
+    public void dropsTransactionsOlderThanTheRecentSet() {
+        PurchaseDeduplicator deduplicator = new PurchaseDeduplicator(directory);
+        assertFalse(deduplicator.isDuplicate(PURCHASE, "old"));
+        for (int i = 0; i < PurchaseDeduplicator.RECENT_CAPACITY * 2; i++) {
+            assertFalse(deduplicator.isDuplicate(PURCHASE, "T" + i));
+        }
+
+        assertTrue(deduplicator.isDuplicate(PURCHASE, "old"));
+        assertEquals(0, deduplicator.getFalsePositiveCount());
+    }
+
+    @Test
+    public void dropsTransactionsLoggedBeforeAReopen() {
+        PurchaseDeduplicator deduplicator = new PurchaseDeduplicator(directory);
+        int count = PurchaseDeduplicator.GENERATION_CAPACITY + 10;
+        for (int i = 0; i < count; i++) {
+            assertFalse(deduplicator.isDuplicate(PURCHASE, "T" + i));
+        }
+
+        PurchaseDeduplicator reopened = new PurchaseDeduplicator(directory);
+        // From the previous generation, the current one and the recent set.
+        assertTrue(reopened.isDuplicate(PURCHASE, "T0"));
+        assertTrue(reopened.isDuplicate(PURCHASE, "T" + PurchaseDeduplicator.GENERATION_CAPACITY));
+        assertTrue(reopened.isDuplicate(PURCHASE, "T" + (count - 1)));
+        assertFalse(reopened.isDuplicate(PURCHASE, "T" + count));
+    }
+
+    @Test
+    public void neverDropsANewTransactionOnAFalsePositive() {
+        PurchaseDeduplicator deduplicator = new PurchaseDeduplicator(directory);
+        // Fills both generations, where the false positive rate of the filter is highest.
+        for (int i = 0; i < PurchaseDeduplicator.GENERATION_CAPACITY * 2; i++) {
+            assertFalse(deduplicator.isDuplicate(PURCHASE, "seen-" + i));
+        }
+        long dropped = deduplicator.getDroppedCount();
+
+        for (int i = 0; i < 20_000; i++) {
+            assertFalse(deduplicator.isDuplicate(REFUND, "unseen-" + i));
+        }
+
+        assertEquals(dropped, deduplicator.getDroppedCount());
+        assertTrue(deduplicator.getFalsePositiveCount() > 0);
+    }
+
+    @Test
+    public void recoversFromATornLog() throws Exception {
+        PurchaseDeduplicator deduplicator = new PurchaseDeduplicator(directory);
+        assertFalse(deduplicator.isDuplicate(PURCHASE, "T1"));
+        // A crash in the middle of an append: the length of a record without its key.
+        try (FileOutputStream log = new FileOutputStream(new File(directory, "current.ids"), true)) {
+            log.write(new byte[] {0, 40, 'T'});
+        }
+
+        PurchaseDeduplicator reopened = new PurchaseDeduplicator(directory);
+        assertTrue(reopened.isDuplicate(PURCHASE, "T1"));
+        assertFalse(reopened.isDuplicate(PURCHASE, "T2"));
+
+        PurchaseDeduplicator again = new PurchaseDeduplicator(directory);
+        assertTrue(again.isDuplicate(PURCHASE, "T1"));
+        assertTrue(again.isDuplicate(PURCHASE, "T2"));
+    }
+}
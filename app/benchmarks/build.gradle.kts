@@ -0,0 +1,36 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+// The app classes under test are compiled from the app's own sources, against the
+// plain-Java Android stand-ins in src/main/java.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include("android/**", "com/google/**", "com/soteria/**")
+            listOf(
+                "Cart", "CartJournal", "CartLine", "CartSnapshot", "EcommercePayloadBuilder",
+                "EventJsonSerializer", "EventLog", "EventRecord", "Metrics", "OrderIdGenerator",
+                "Product", "ProductCatalog"
+            ).forEach { include("com/gtm/boilerplate/android/$it.java") }
+        }
+    }
+}
+
+dependencies {
+    implementation(libs.gson)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    // One JSON file per run, to be archived per release and compared between them.
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Products shaped like the demo catalog, shared by the benchmarks.
+ */
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    static Product product(int index) {
+        return new Product("SKU_" + index, "Product " + index, "Category " + index % 8,
+                19.99 + index % 100, 0, "sku-" + index);
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    /**
+     * Empties the shared cart and fills it with one line per product.
+     */
+    static void fillCart(Cart cart, List<Product> products) {
+        cart.clearCart();
+        for (int i = 0; i < products.size(); i++) {
+            cart.addItem(products.get(i), 1 + i % 3);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart lookups and mutations at cart sizes from 10 to 10,000 lines. Every benchmark
+ * leaves the cart with the same lines, so the size stays fixed during a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int lines;
+
+    private final Cart cart = Cart.getInstance();
+    private List<Product> products;
+    private Product extraProduct;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(lines);
+        BenchmarkData.fillCart(cart, products);
+        extraProduct = BenchmarkData.product(lines);
+    }
+
+    private Product nextProduct() {
+        next = next + 1 == lines ? 0 : next + 1;
+        return products.get(next);
+    }
+
+    @Benchmark
+    public CartLine findLine() {
+        return cart.findLine(nextProduct().getId());
+    }
+
+    /**
+     * Adding a new line and removing it again.
+     */
+    @Benchmark
+    public int addAndRemoveItem() {
+        cart.addItem(extraProduct);
+        cart.removeItem(extraProduct.getId());
+        return cart.getLineCount();
+    }
+
+    /**
+     * Adding a unit of a product already in the cart, then taking it out again.
+     */
+    @Benchmark
+    public long addExistingItem() {
+        Product product = nextProduct();
+        cart.addItem(product);
+        cart.setQuantity(product.getId(), cart.findLine(product.getId()).getQuantity() - 1);
+        return cart.getSubtotalCents();
+    }
+
+    /**
+     * A change followed by a snapshot, which the cart screen and purchase take.
+     */
+    @Benchmark
+    public CartSnapshot snapshotAfterChange() {
+        Product product = nextProduct();
+        cart.addItem(product);
+        cart.setQuantity(product.getId(), cart.findLine(product.getId()).getQuantity() - 1);
+        return cart.getSnapshot();
+    }
+}
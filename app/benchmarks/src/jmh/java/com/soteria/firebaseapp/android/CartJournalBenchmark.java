@@ -0,0 +1,85 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restoring a persisted cart at startup: mapping and replaying the journal, merging the
+ * lines into the cart and compacting the journal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartJournalBenchmark {
+    private static final int APP_VERSION_CODE = 1;
+
+    @Param({"1000"})
+    public int lines;
+
+    private final Cart cart = Cart.getInstance();
+    private File dir;
+    private File file;
+
+    @Setup
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("cart-journal").toFile();
+        file = new File(dir, "cart.journal");
+        cart.clearCart();
+        CartJournal journal = new CartJournal(cart, file, APP_VERSION_CODE);
+        journal.awaitIdle();
+        BenchmarkData.fillCart(cart, BenchmarkData.products(lines));
+        journal.awaitIdle();
+        journal.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cart.clearCart();
+        for (File child : dir.listFiles()) {
+            Files.delete(child.toPath());
+        }
+        Files.delete(dir.toPath());
+    }
+
+    @Benchmark
+    public int restore() throws Exception {
+        cart.clearCart();
+        CartJournal journal = new CartJournal(cart, file, APP_VERSION_CODE);
+        journal.awaitIdle();
+        journal.close();
+        return cart.getLineCount();
+    }
+}
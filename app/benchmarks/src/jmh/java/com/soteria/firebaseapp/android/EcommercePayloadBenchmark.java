@@ -0,0 +1,87 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ecommerce event payloads, which replaced the bundle builders of the activities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EcommercePayloadBenchmark {
+    // Number of cart lines, and of products in the list.
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private final EcommercePayloadBuilder builder = EcommercePayloadBuilder.getInstance();
+    private List<Product> products;
+    private CartSnapshot snapshot;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(lines);
+        Cart cart = Cart.getInstance();
+        BenchmarkData.fillCart(cart, products);
+        snapshot = cart.getSnapshot();
+        product = products.get(0);
+    }
+
+    @Benchmark
+    public Bundle viewItem() {
+        return builder.viewItem(product);
+    }
+
+    @Benchmark
+    public Bundle addToCart() {
+        return builder.addToCart(product, 2);
+    }
+
+    @Benchmark
+    public Bundle viewItemList() {
+        return builder.viewItemList(products);
+    }
+
+    @Benchmark
+    public Bundle viewCart() {
+        return builder.viewCart(snapshot);
+    }
+
+    @Benchmark
+    public Bundle purchase() {
+        return builder.purchase(snapshot, "T_12345");
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing events for the event inspector and recording them: what
+ * {@code ToolbarAndBottomSheet.getDemoJson} and {@code recordEvent} do per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventJsonBenchmark {
+    // Number of cart lines in the purchase event.
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private Bundle viewItem;
+    private Bundle purchase;
+    private String compactPurchase;
+    private EventLog eventLog;
+
+    @Setup
+    public void setUp() {
+        EcommercePayloadBuilder builder = EcommercePayloadBuilder.getInstance();
+        Cart cart = Cart.getInstance();
+        BenchmarkData.fillCart(cart, BenchmarkData.products(lines));
+        viewItem = builder.viewItem(BenchmarkData.product(0));
+        purchase = builder.purchase(cart.getSnapshot(), "T_12345");
+        compactPurchase = EventJsonSerializer.compact().toJson("purchase", purchase);
+        // The capacity the app uses, so adds overwrite the oldest records as in a long session.
+        eventLog = new EventLog(500);
+        for (int i = 0; i < 500; i++) {
+            eventLog.add("view_item", compactPurchase);
+        }
+    }
+
+    /**
+     * {@code getDemoJson} in a release build.
+     */
+    @Benchmark
+    public String demoJsonViewItem() {
+        return EventJsonSerializer.getInstance().toJson("view_item", viewItem);
+    }
+
+    @Benchmark
+    public String demoJsonPurchase() {
+        return EventJsonSerializer.getInstance().toJson("purchase", purchase);
+    }
+
+    /**
+     * Pretty-printing a recorded event when the inspector shows it.
+     */
+    @Benchmark
+    public String reformatPurchase() {
+        return EventJsonSerializer.pretty().reformat(compactPurchase);
+    }
+
+    /**
+     * {@code recordEvent}: serialize, then insert into the event log.
+     */
+    @Benchmark
+    public EventRecord recordPurchase() {
+        return eventLog.add("purchase", EventJsonSerializer.compact().toJson("purchase", purchase));
+    }
+
+    @Benchmark
+    public EventRecord eventLogAdd() {
+        return eventLog.add("purchase", compactPurchase);
+    }
+
+    /**
+     * Event log insertion from several dispatching threads at once.
+     */
+    @Benchmark
+    @Threads(4)
+    public EventRecord eventLogAddContended() {
+        return eventLog.add("purchase", compactPurchase);
+    }
+}
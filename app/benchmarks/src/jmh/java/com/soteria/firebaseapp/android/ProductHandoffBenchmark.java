@@ -0,0 +1,106 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.android;
+
+import android.os.Bundle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handing a product from the list to the details screen: the Serializable extra the app
+ * used to send, and the catalog lookup by ID it does now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductHandoffBenchmark {
+    private Product product;
+    private SerializableProduct serializableProduct;
+
+    /**
+     * The product as it was when it was sent as a Serializable extra.
+     */
+    private static class SerializableProduct implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String id;
+        final String name;
+        final String category;
+        final double price;
+        final int imageResource;
+        final String sku;
+
+        SerializableProduct(Product product) {
+            id = product.getId();
+            name = product.getName();
+            category = product.getCategory();
+            price = product.getPrice();
+            imageResource = product.getImageResource();
+            sku = product.getSku();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.product(42);
+        serializableProduct = new SerializableProduct(product);
+    }
+
+    /**
+     * Writing and reading the product with Java serialization, as the system did for the
+     * Serializable extra.
+     */
+    @Benchmark
+    public Object serializableRoundTrip() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(serializableProduct);
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return input.readObject();
+        }
+    }
+
+    /**
+     * Putting the product into navigation arguments and resolving it by ID on the other side.
+     */
+    @Benchmark
+    public Product catalogHandoff() {
+        Bundle arguments = new Bundle();
+        ProductCatalog.putProduct(arguments, product);
+        return ProductCatalog.getProduct(arguments);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain-Java stand-in for {@code android.os.Bundle} for the JVM benchmarks: a hash map
+ * with the typed accessors the app uses. The real Bundle is backed by an ArrayMap,
+ * which is slower to write but lighter; compare trends, not absolute numbers.
+ */
+public final class Bundle implements Parcelable {
+    private final Map<String, Object> values;
+
+    public Bundle() {
+        values = new HashMap<>();
+    }
+
+    public Bundle(Bundle other) {
+        values = new HashMap<>(other.values);
+    }
+
+    public Set<String> keySet() {
+        return values.keySet();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    public Object get(String key) {
+        return values.get(key);
+    }
+
+    public void putString(String key, String value) {
+        values.put(key, value);
+    }
+
+    public String getString(String key) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    public void putInt(String key, int value) {
+        values.put(key, value);
+    }
+
+    public void putLong(String key, long value) {
+        values.put(key, value);
+    }
+
+    public void putDouble(String key, double value) {
+        values.put(key, value);
+    }
+
+    public void putBundle(String key, Bundle value) {
+        values.put(key, value);
+    }
+
+    public void putParcelable(String key, Parcelable value) {
+        values.put(key, value);
+    }
+
+    public void putParcelableArray(String key, Parcelable[] value) {
+        values.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Parcelable> T getParcelable(String key) {
+        return (T) values.get(key);
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        throw new UnsupportedOperationException("Bundles are not parcelled by the benchmarks");
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.os;
+
+import java.util.Arrays;
+
+/**
+ * Plain-Java stand-in for {@code android.os.Parcel}: a growable byte buffer with the
+ * native Parcel's layout for the types the app writes (4-byte aligned ints, 8-byte
+ * doubles, strings as a length followed by UTF-16 code units, -1 for null).
+ */
+public final class Parcel {
+    private byte[] data = new byte[256];
+    private int size;
+    private int position;
+
+    private Parcel() {
+    }
+
+    public static Parcel obtain() {
+        return new Parcel();
+    }
+
+    public void recycle() {
+        size = 0;
+        position = 0;
+    }
+
+    public int dataSize() {
+        return size;
+    }
+
+    public void setDataPosition(int position) {
+        this.position = position;
+    }
+
+    public byte[] marshall() {
+        return Arrays.copyOf(data, size);
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(4);
+        data[position++] = (byte) value;
+        data[position++] = (byte) (value >> 8);
+        data[position++] = (byte) (value >> 16);
+        data[position++] = (byte) (value >> 24);
+        size = Math.max(size, position);
+    }
+
+    public int readInt() {
+        return (data[position++] & 0xff) | (data[position++] & 0xff) << 8
+                | (data[position++] & 0xff) << 16 | (data[position++] & 0xff) << 24;
+    }
+
+    public void writeLong(long value) {
+        writeInt((int) value);
+        writeInt((int) (value >>> 32));
+    }
+
+    public long readLong() {
+        return (readInt() & 0xffffffffL) | ((long) readInt() << 32);
+    }
+
+    public void writeDouble(double value) {
+        writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        int length = value.length();
+        writeInt(length);
+        // Code units plus a terminating zero, padded to 4 bytes.
+        int bytes = (length + 1) * 2 + 3 & ~3;
+        ensureCapacity(bytes);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            data[position + i * 2] = (byte) c;
+            data[position + i * 2 + 1] = (byte) (c >> 8);
+        }
+        Arrays.fill(data, position + length * 2, position + bytes, (byte) 0);
+        position += bytes;
+        size = Math.max(size, position);
+    }
+
+    public String readString() {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ((data[position + i * 2] & 0xff) | (data[position + i * 2 + 1] & 0xff) << 8);
+        }
+        position += (length + 1) * 2 + 3 & ~3;
+        return new String(chars);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, position + bytes));
+        }
+    }
+}
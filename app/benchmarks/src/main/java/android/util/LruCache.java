@@ -0,0 +1,55 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.util;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Plain-Java stand-in for {@code android.util.LruCache} with every entry of size 1:
+ * a synchronized access-ordered LinkedHashMap, like the real one.
+ */
+public class LruCache<K, V> {
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(0, 0.75f, true);
+    private final int maxSize;
+
+    public LruCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public final synchronized V get(K key) {
+        return map.get(key);
+    }
+
+    public final synchronized V put(K key, V value) {
+        V previous = map.put(key, value);
+        while (map.size() > maxSize) {
+            map.remove(map.keySet().iterator().next());
+        }
+        return previous;
+    }
+
+    public final synchronized V remove(K key) {
+        return map.remove(key);
+    }
+
+    public final synchronized int size() {
+        return map.size();
+    }
+
+    public final synchronized void evictAll() {
+        map.clear();
+    }
+}
@@ -0,0 +1,21 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+application {
+    mainClass.set("com.soteria.firebaseapp.lint.ContainerLintTool")
+}
+
+tasks.named<JavaExec>("run") {
+    // Lint the exported containers of this repository by default.
+    args("lint", rootProject.file("../google_tag_manager_web/src").path)
+}
+
+dependencies {
+    implementation(libs.gson)
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.lint;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A semantic diff of two containers. Entities are matched by kind, type and name, so
+ * variants whose IDs were assigned independently still line up; trigger references are
+ * compared by trigger name.
+ */
+public final class ContainerDiff {
+    private ContainerDiff() {
+    }
+
+    /**
+     * @param before The old container.
+     * @param after The new container.
+     * @return One line per difference: {@code +} added, {@code -} removed, {@code ~} changed.
+     */
+    public static List<String> diff(ContainerSummary before, ContainerSummary after) {
+        Map<String, ContainerSummary.Entity> beforeByKey = byKey(before);
+        Map<String, ContainerSummary.Entity> afterByKey = byKey(after);
+        List<String> differences = new ArrayList<>();
+        for (Map.Entry<String, ContainerSummary.Entity> entry : beforeByKey.entrySet()) {
+            ContainerSummary.Entity old = entry.getValue();
+            ContainerSummary.Entity changed = afterByKey.get(entry.getKey());
+            if (changed == null) {
+                differences.add("- " + old.describe());
+                continue;
+            }
+            if (old.contentHash != changed.contentHash) {
+                differences.add("~ " + old.describe() + ": settings differ");
+            }
+            if (old.paused != changed.paused) {
+                differences.add("~ " + old.describe() + ": " + (changed.paused ? "paused" : "unpaused"));
+            }
+            List<String> oldFiring = triggerNames(before, old.firingTriggerIds);
+            List<String> newFiring = triggerNames(after, changed.firingTriggerIds);
+            if (!oldFiring.equals(newFiring)) {
+                differences.add("~ " + old.describe() + ": firing triggers " + oldFiring + " -> " + newFiring);
+            }
+            List<String> oldBlocking = triggerNames(before, old.blockingTriggerIds);
+            List<String> newBlocking = triggerNames(after, changed.blockingTriggerIds);
+            if (!oldBlocking.equals(newBlocking)) {
+                differences.add("~ " + old.describe() + ": blocking triggers " + oldBlocking + " -> " + newBlocking);
+            }
+        }
+        for (Map.Entry<String, ContainerSummary.Entity> entry : afterByKey.entrySet()) {
+            if (!beforeByKey.containsKey(entry.getKey())) {
+                differences.add("+ " + entry.getValue().describe());
+            }
+        }
+        return differences;
+    }
+
+    private static Map<String, ContainerSummary.Entity> byKey(ContainerSummary container) {
+        Map<String, ContainerSummary.Entity> entities = new LinkedHashMap<>();
+        for (ContainerSummary.Entity entity : container.getEntities()) {
+            entities.put(entity.key(), entity);
+        }
+        return entities;
+    }
+
+    private static List<String> triggerNames(ContainerSummary container, List<String> triggerIds) {
+        List<String> names = new ArrayList<>(triggerIds.size());
+        for (String triggerId : triggerIds) {
+            names.add(container.triggerName(triggerId));
+        }
+        names.sort(null);
+        return names;
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.lint;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds entities of a container that cost page weight or runtime without doing anything.
+ */
+public final class ContainerLint {
+    /**
+     * The lint rules.
+     */
+    public enum Rule {
+        // A variable no tag, client or used trigger reads, directly or through other variables.
+        DEAD_VARIABLE,
+        // A trigger no tag fires or blocks on.
+        UNREFERENCED_TRIGGER,
+        // Tags of the same type with the same content and triggers.
+        DUPLICATE_TAG
+    }
+
+    /**
+     * One problem found in a container.
+     */
+    public static final class Finding {
+        private final Rule rule;
+        private final String message;
+
+        Finding(Rule rule, String message) {
+            this.rule = rule;
+            this.message = message;
+        }
+
+        public Rule getRule() {
+            return rule;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return rule + ": " + message;
+        }
+    }
+
+    private ContainerLint() {
+    }
+
+    /**
+     * @param container The container to check.
+     * @return The findings, grouped by rule.
+     */
+    public static List<Finding> lint(ContainerSummary container) {
+        List<Finding> findings = new ArrayList<>();
+        Map<String, ContainerSummary.Entity> variables = new LinkedHashMap<>();
+        Set<String> referencedTriggerIds = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        for (ContainerSummary.Entity entity : container.getEntities()) {
+            switch (entity.kind) {
+                case TAG:
+                    referencedTriggerIds.addAll(entity.firingTriggerIds);
+                    referencedTriggerIds.addAll(entity.blockingTriggerIds);
+                    pending.addAll(entity.variableReferences);
+                    break;
+                case CLIENT:
+                    pending.addAll(entity.variableReferences);
+                    break;
+                case VARIABLE:
+                    variables.put(entity.name, entity);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        for (ContainerSummary.Entity entity : container.getEntities()) {
+            if (entity.kind != ContainerSummary.Kind.TRIGGER) {
+                continue;
+            }
+            if (referencedTriggerIds.contains(entity.id)) {
+                pending.addAll(entity.variableReferences);
+            } else {
+                findings.add(new Finding(Rule.UNREFERENCED_TRIGGER, entity.describe()));
+            }
+        }
+
+        Set<String> live = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            ContainerSummary.Entity variable = variables.get(name);
+            if (variable != null && live.add(name)) {
+                pending.addAll(variable.variableReferences);
+            }
+        }
+        for (ContainerSummary.Entity variable : variables.values()) {
+            if (!live.contains(variable.name)) {
+                findings.add(new Finding(Rule.DEAD_VARIABLE, variable.describe()));
+            }
+        }
+
+        Map<String, List<ContainerSummary.Entity>> tagsByContent = new LinkedHashMap<>();
+        for (ContainerSummary.Entity entity : container.getEntities()) {
+            if (entity.kind == ContainerSummary.Kind.TAG) {
+                String key = entity.type + "\0" + entity.contentHash + "\0" + entity.firingTriggerIds
+                        + "\0" + entity.blockingTriggerIds;
+                tagsByContent.computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+            }
+        }
+        for (List<ContainerSummary.Entity> tags : tagsByContent.values()) {
+            if (tags.size() > 1) {
+                StringBuilder message = new StringBuilder();
+                for (ContainerSummary.Entity tag : tags) {
+                    message.append(message.length() == 0 ? "" : ", ").append(tag.describe());
+                }
+                findings.add(new Finding(Rule.DUPLICATE_TAG, message.toString()));
+            }
+        }
+        findings.sort((a, b) -> a.rule.compareTo(b.rule));
+        return findings;
+    }
+}
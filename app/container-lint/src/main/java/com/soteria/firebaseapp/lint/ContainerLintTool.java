@@ -0,0 +1,120 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.lint;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line entry point.
+ * <pre>
+ * ContainerLintTool lint &lt;file or directory&gt;...   lint every export; directories are searched for *.json
+ * ContainerLintTool diff &lt;old.json&gt; &lt;new.json&gt;   print the semantic diff of two exports
+ * </pre>
+ * Exits with 0 if there are no findings or differences, 1 if there are and 2 on errors,
+ * so it can gate a CI step. Files are linted in parallel and reported in path order.
+ */
+public final class ContainerLintTool {
+    private ContainerLintTool() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        if (args.length >= 2 && args[0].equals("lint")) {
+            return lint(args, out, err);
+        }
+        if (args.length == 3 && args[0].equals("diff")) {
+            return diff(Path.of(args[1]), Path.of(args[2]), out, err);
+        }
+        err.println("Usage: ContainerLintTool lint <file or directory>...");
+        err.println("       ContainerLintTool diff <old.json> <new.json>");
+        return 2;
+    }
+
+    private static int lint(String[] args, PrintStream out, PrintStream err) {
+        List<Path> files = new ArrayList<>();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                Path path = Path.of(args[i]);
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> walk = Files.walk(path)) {
+                        walk.filter(file -> file.toString().endsWith(".json")).sorted().forEach(files::add);
+                    }
+                } else {
+                    files.add(path);
+                }
+            }
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            return 2;
+        }
+
+        long start = System.nanoTime();
+        List<String> reports = files.parallelStream().map(ContainerLintTool::lintReport).collect(Collectors.toList());
+        int status = 0;
+        for (String report : reports) {
+            if (report.startsWith("!")) {
+                err.print(report.substring(1));
+                status = 2;
+            } else if (!report.isEmpty()) {
+                out.print(report);
+                status = Math.max(status, 1);
+            }
+        }
+        err.printf("Linted %d files in %d ms%n", files.size(), (System.nanoTime() - start) / 1_000_000);
+        return status;
+    }
+
+    /**
+     * @return The findings of a file, empty if it's clean, or an error prefixed with "!".
+     */
+    private static String lintReport(Path file) {
+        try {
+            List<ContainerLint.Finding> findings = ContainerLint.lint(StreamingContainerReader.read(file));
+            StringBuilder report = new StringBuilder();
+            for (ContainerLint.Finding finding : findings) {
+                report.append(file).append(": ").append(finding).append(System.lineSeparator());
+            }
+            return report.toString();
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            return "!" + file + ": " + e.getMessage() + System.lineSeparator();
+        }
+    }
+
+    private static int diff(Path before, Path after, PrintStream out, PrintStream err) {
+        List<String> differences;
+        try {
+            differences = ContainerDiff.diff(StreamingContainerReader.read(before), StreamingContainerReader.read(after));
+        } catch (IOException | IllegalStateException e) {
+            err.println(e.getMessage());
+            return 2;
+        }
+        for (String difference : differences) {
+            out.println(difference);
+        }
+        return differences.isEmpty() ? 0 : 1;
+    }
+}
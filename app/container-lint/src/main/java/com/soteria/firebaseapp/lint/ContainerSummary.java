@@ -0,0 +1,150 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.lint;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What the lint and diff need from an exported container: each tag, trigger, variable
+ * and client with its references and a hash of its content, but none of the content
+ * itself.
+ */
+public final class ContainerSummary {
+    /**
+     * The kinds of entities of a container.
+     */
+    public enum Kind {
+        TAG, TRIGGER, VARIABLE, CLIENT;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * One tag, trigger, variable or client.
+     */
+    public static final class Entity {
+        final Kind kind;
+        final String id;
+        final String name;
+        final String type;
+        final boolean paused;
+        // Hash of everything but the IDs, name, type and bookkeeping fields such as the fingerprint.
+        final long contentHash;
+        final List<String> firingTriggerIds;
+        final List<String> blockingTriggerIds;
+        // Names of the variables referenced as {{Name}} anywhere in the content.
+        final Set<String> variableReferences;
+
+        Entity(Kind kind, String id, String name, String type, boolean paused, long contentHash,
+               List<String> firingTriggerIds, List<String> blockingTriggerIds, Set<String> variableReferences) {
+            this.kind = kind;
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.paused = paused;
+            this.contentHash = contentHash;
+            this.firingTriggerIds = firingTriggerIds;
+            this.blockingTriggerIds = blockingTriggerIds;
+            this.variableReferences = variableReferences;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return The key entities are matched by across containers.
+         */
+        String key() {
+            return kind + "\0" + type + "\0" + name;
+        }
+
+        String describe() {
+            return kind.label() + " " + type + " \"" + name + "\"";
+        }
+    }
+
+    private final String versionId;
+    private final List<Entity> entities;
+    private final Set<String> builtInVariableNames;
+    private final Map<String, Entity> triggersById = new HashMap<>();
+
+    ContainerSummary(String versionId, List<Entity> entities, Set<String> builtInVariableNames) {
+        this.versionId = versionId;
+        this.entities = Collections.unmodifiableList(entities);
+        this.builtInVariableNames = Collections.unmodifiableSet(builtInVariableNames);
+        for (Entity entity : entities) {
+            if (entity.kind == Kind.TRIGGER) {
+                triggersById.put(entity.id, entity);
+            }
+        }
+    }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    /**
+     * @return The entities, in export order: tags, triggers, variables, clients.
+     */
+    public List<Entity> getEntities() {
+        return entities;
+    }
+
+    Set<String> getBuiltInVariableNames() {
+        return builtInVariableNames;
+    }
+
+    Entity getTrigger(String triggerId) {
+        return triggersById.get(triggerId);
+    }
+
+    /**
+     * @param triggerId A trigger ID.
+     * @return The trigger name, or a description of a built-in or missing trigger.
+     */
+    String triggerName(String triggerId) {
+        Entity trigger = triggersById.get(triggerId);
+        if (trigger != null) {
+            return trigger.name;
+        }
+        return isBuiltInTriggerId(triggerId) ? "built-in " + triggerId : "missing " + triggerId;
+    }
+
+    static boolean isBuiltInTriggerId(String triggerId) {
+        try {
+            // Built-in triggers have IDs from this value on.
+            return Long.parseLong(triggerId) >= 2147479553L;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.lint;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a container export into a {@link ContainerSummary} in one streaming pass. No
+ * JSON tree is built: the content of each entity is folded into a 64-bit FNV-1a hash
+ * token by token, and only IDs, names, types and variable references are kept.
+ */
+public final class StreamingContainerReader {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private StreamingContainerReader() {
+    }
+
+    /**
+     * @param path The path of an export JSON file.
+     * @return The summary of the container.
+     */
+    public static ContainerSummary read(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * @param reader The export JSON.
+     * @return The summary of the container.
+     */
+    public static ContainerSummary read(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        String versionId = "";
+        List<ContainerSummary.Entity> entities = new ArrayList<>();
+        Set<String> builtInVariableNames = new HashSet<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("containerVersion")) {
+                json.skipValue();
+                continue;
+            }
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                switch (name) {
+                    case "containerVersionId":
+                        versionId = json.nextString();
+                        break;
+                    case "tag":
+                        readEntities(json, ContainerSummary.Kind.TAG, entities);
+                        break;
+                    case "trigger":
+                        readEntities(json, ContainerSummary.Kind.TRIGGER, entities);
+                        break;
+                    case "variable":
+                        readEntities(json, ContainerSummary.Kind.VARIABLE, entities);
+                        break;
+                    case "client":
+                        readEntities(json, ContainerSummary.Kind.CLIENT, entities);
+                        break;
+                    case "builtInVariable":
+                        readBuiltInVariableNames(json, builtInVariableNames);
+                        break;
+                    default:
+                        json.skipValue();
+                        break;
+                }
+            }
+            json.endObject();
+        }
+        json.endObject();
+        return new ContainerSummary(versionId, entities, builtInVariableNames);
+    }
+
+    private static void readEntities(JsonReader json, ContainerSummary.Kind kind,
+                                     List<ContainerSummary.Entity> entities) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            entities.add(readEntity(json, kind));
+        }
+        json.endArray();
+    }
+
+    private static ContainerSummary.Entity readEntity(JsonReader json, ContainerSummary.Kind kind) throws IOException {
+        String id = "";
+        String name = "";
+        String type = "";
+        boolean paused = false;
+        List<String> firingTriggerIds = List.of();
+        List<String> blockingTriggerIds = List.of();
+        Set<String> variableReferences = new HashSet<>();
+        long hash = FNV_OFFSET;
+        json.beginObject();
+        while (json.hasNext()) {
+            String key = json.nextName();
+            switch (key) {
+                case "tagId":
+                case "triggerId":
+                case "variableId":
+                case "clientId":
+                    id = json.nextString();
+                    break;
+                case "name":
+                    name = json.nextString();
+                    break;
+                case "type":
+                    type = json.nextString();
+                    break;
+                case "paused":
+                    paused = json.nextBoolean();
+                    break;
+                case "firingTriggerId":
+                    firingTriggerIds = readStrings(json);
+                    break;
+                case "blockingTriggerId":
+                    blockingTriggerIds = readStrings(json);
+                    break;
+                case "accountId":
+                case "containerId":
+                case "fingerprint":
+                case "parentFolderId":
+                case "notes":
+                case "tagManagerUrl":
+                case "path":
+                    json.skipValue();
+                    break;
+                default:
+                    hash = scan(json, hash(hash, key), variableReferences);
+                    break;
+            }
+        }
+        json.endObject();
+        return new ContainerSummary.Entity(kind, id, name, type, paused, hash, firingTriggerIds, blockingTriggerIds,
+                variableReferences);
+    }
+
+    private static List<String> readStrings(JsonReader json) throws IOException {
+        List<String> values = new ArrayList<>(2);
+        json.beginArray();
+        while (json.hasNext()) {
+            values.add(json.nextString());
+        }
+        json.endArray();
+        return values;
+    }
+
+    private static void readBuiltInVariableNames(JsonReader json, Set<String> names) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals("name")) {
+                    names.add(json.nextString());
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    /**
+     * Folds a JSON value into the hash and collects the variable references of its strings.
+     */
+    private static long scan(JsonReader json, long hash, Set<String> variableReferences) throws IOException {
+        switch (json.peek()) {
+            case BEGIN_ARRAY:
+                json.beginArray();
+                hash = mix(hash, '[');
+                while (json.hasNext()) {
+                    hash = scan(json, hash, variableReferences);
+                }
+                json.endArray();
+                return mix(hash, ']');
+            case BEGIN_OBJECT:
+                json.beginObject();
+                hash = mix(hash, '{');
+                while (json.hasNext()) {
+                    hash = scan(json, hash(hash, json.nextName()), variableReferences);
+                }
+                json.endObject();
+                return mix(hash, '}');
+            case BOOLEAN:
+                return mix(hash, json.nextBoolean() ? 't' : 'f');
+            case NULL:
+                json.nextNull();
+                return mix(hash, 'n');
+            default:
+                String value = json.nextString();
+                collectReferences(value, variableReferences);
+                return hash(hash, value);
+        }
+    }
+
+    private static void collectReferences(String value, Set<String> variableReferences) {
+        int open = value.indexOf("{{");
+        while (open >= 0) {
+            int close = value.indexOf("}}", open + 2);
+            if (close < 0) {
+                return;
+            }
+            variableReferences.add(value.substring(open + 2, close));
+            open = value.indexOf("{{", close + 2);
+        }
+    }
+
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = mix(hash, value.charAt(i));
+        }
+        // Separate consecutive strings so that "ab","c" and "a","bc" differ.
+        return mix(hash, 0);
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,20 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+    implementation(libs.gson)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    // The benchmarks load the exported containers of this repository.
+    jvmArgs.add("-Dcontainer.dir=" + rootProject.file("../google_tag_manager_web/src").path)
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.container;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse time and per-event evaluation for each exported container of the repository.
+ * The exports are read from the directory in the {@code container.dir} system property.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerBenchmark {
+    @Param({"web-container.json", "web-container-hybrid.json", "web-container-server-tags.json",
+            "server-container.json"})
+    public String file;
+
+    private String json;
+    private Container container;
+    private final ContainerEvent purchase = ContainerEvent.named("purchase");
+    private final ContainerEvent pageView = ContainerEvent.named("page_view");
+    private final ContainerEvent gtmJs = ContainerEvent.named("gtm.js");
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = Path.of(System.getProperty("container.dir", "../../google_tag_manager_web/src"));
+        json = Files.readString(dir.resolve(file), StandardCharsets.UTF_8);
+        container = Container.parse(new StringReader(json));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Container parse() {
+        return Container.parse(new StringReader(json));
+    }
+
+    @Benchmark
+    public List<Tag> tagsForPurchase() {
+        return container.tagsFor(purchase);
+    }
+
+    @Benchmark
+    public List<Tag> tagsForPageView() {
+        return container.tagsFor(pageView);
+    }
+
+    @Benchmark
+    public List<Tag> tagsForGtmJs() {
+        return container.tagsFor(gtmJs);
+    }
+
+    /**
+     * Runs the compiled triggers without the per-event-name cache.
+     */
+    @Benchmark
+    public List<Tag> evaluatePurchase() {
+        return container.evaluate(purchase);
+    }
+}
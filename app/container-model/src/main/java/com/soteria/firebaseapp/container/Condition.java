@@ -0,0 +1,202 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.container;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * One condition of a trigger, e.g. {@code {{_event}} EQUALS purchase}, compiled to a
+ * predicate when the container is loaded. Unsupported types never hold, and neither do
+ * regular expressions that don't compile, negated or not.
+ */
+public final class Condition {
+    private final String type;
+    private final String left;
+    private final String right;
+    private final boolean negate;
+    private final boolean ignoreCase;
+    final Predicate<ContainerEvent> predicate;
+    final boolean readsEventNameOnly;
+
+    Condition(String type, String left, String right, boolean negate, boolean ignoreCase,
+              ValueSource leftSource, ValueSource rightSource) {
+        this.type = type;
+        this.left = left;
+        this.right = right;
+        this.negate = negate;
+        this.ignoreCase = ignoreCase;
+        this.readsEventNameOnly = leftSource.readsEventNameOnly() && rightSource.readsEventNameOnly();
+        if ("MATCH_REGEX".equals(type)) {
+            this.predicate = compileRegex(leftSource, rightSource, negate, ignoreCase);
+        } else {
+            Predicate<ContainerEvent> predicate = compile(type, leftSource, rightSource, ignoreCase);
+            this.predicate = negate ? predicate.negate() : predicate;
+        }
+    }
+
+    /**
+     * A pattern compiled from a value read from the event; null if it doesn't compile.
+     */
+    private static final class CompiledPattern {
+        final String source;
+        final Pattern pattern;
+
+        CompiledPattern(String source, Pattern pattern) {
+            this.source = source;
+            this.pattern = pattern;
+        }
+    }
+
+    /**
+     * Compiles a MATCH_REGEX condition. A constant pattern is compiled once; a pattern read
+     * from the event is only recompiled when it differs from the previous one.
+     */
+    private static Predicate<ContainerEvent> compileRegex(ValueSource left, ValueSource right, boolean negate,
+                                                          boolean ignoreCase) {
+        int flags = ignoreCase ? Pattern.CASE_INSENSITIVE : 0;
+        String constant = right.constantValue();
+        if (constant != null) {
+            Pattern pattern = compilePattern(constant, flags);
+            if (pattern == null) {
+                return event -> false;
+            }
+            return event -> pattern.matcher(left.resolve(event)).find() != negate;
+        }
+        AtomicReference<CompiledPattern> last = new AtomicReference<>();
+        return event -> {
+            String source = right.resolve(event);
+            CompiledPattern compiled = last.get();
+            if (compiled == null || !compiled.source.equals(source)) {
+                compiled = new CompiledPattern(source, compilePattern(source, flags));
+                last.set(compiled);
+            }
+            return compiled.pattern != null && compiled.pattern.matcher(left.resolve(event)).find() != negate;
+        };
+    }
+
+    private static Pattern compilePattern(String regex, int flags) {
+        try {
+            return Pattern.compile(regex, flags);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    private static Predicate<ContainerEvent> compile(String type, ValueSource left, ValueSource right,
+                                                     boolean ignoreCase) {
+        String constant = right.constantValue();
+        if (constant == null) {
+            return event -> test(type, left.resolve(event), right.resolve(event), ignoreCase);
+        }
+        String folded = ignoreCase ? constant.toLowerCase(Locale.ROOT) : constant;
+        switch (type) {
+            case "EQUALS":
+                return ignoreCase
+                        ? event -> left.resolve(event).equalsIgnoreCase(constant)
+                        : event -> left.resolve(event).equals(constant);
+            case "CONTAINS":
+                return event -> fold(left.resolve(event), ignoreCase).contains(folded);
+            case "STARTS_WITH":
+                return ignoreCase
+                        ? event -> left.resolve(event).regionMatches(true, 0, constant, 0, constant.length())
+                        : event -> left.resolve(event).startsWith(constant);
+            case "ENDS_WITH":
+                return event -> fold(left.resolve(event), ignoreCase).endsWith(folded);
+            default:
+                return event -> test(type, left.resolve(event), constant, ignoreCase);
+        }
+    }
+
+    private static boolean test(String type, String value, String right, boolean ignoreCase) {
+        switch (type) {
+            case "EQUALS":
+                return ignoreCase ? value.equalsIgnoreCase(right) : value.equals(right);
+            case "CONTAINS":
+                return fold(value, ignoreCase).contains(fold(right, ignoreCase));
+            case "STARTS_WITH":
+                return fold(value, ignoreCase).startsWith(fold(right, ignoreCase));
+            case "ENDS_WITH":
+                return fold(value, ignoreCase).endsWith(fold(right, ignoreCase));
+            case "LESS":
+                return compare(value, right) < 0;
+            case "LESS_OR_EQUALS":
+                return compare(value, right) <= 0;
+            case "GREATER":
+                return compare(value, right) > 0;
+            case "GREATER_OR_EQUALS":
+                return compare(value, right) >= 0;
+            default:
+                return false;
+        }
+    }
+
+    private static String fold(String value, boolean ignoreCase) {
+        return ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+    }
+
+    /**
+     * Subtracts two values as numbers; non-numeric values give NaN, which fails every
+     * numeric condition.
+     */
+    private static double compare(String value, String right) {
+        try {
+            return Double.parseDouble(value) - Double.parseDouble(right);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * @return The condition type, e.g. {@code EQUALS} or {@code MATCH_REGEX}.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return The left operand as exported, usually a variable reference like {@code {{_event}}}.
+     */
+    public String getLeft() {
+        return left;
+    }
+
+    /**
+     * @return The right operand as exported.
+     */
+    public String getRight() {
+        return right;
+    }
+
+    public boolean isNegated() {
+        return negate;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * @param event The event.
+     * @return Whether the condition holds for the event.
+     */
+    public boolean holds(ContainerEvent event) {
+        return predicate.test(event);
+    }
+}
@@ -0,0 +1,495 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.container;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An exported GTM container (web or server), parsed once into an immutable model indexed
+ * by ID. Trigger conditions are compiled to predicates and variable references are
+ * resolved at load time, so {@link #tagsFor(ContainerEvent)} only runs the predicates.
+ * <p>
+ * When every trigger depends on nothing but the event name, as with the exports of this
+ * repository, the fired tags are also remembered per event name.
+ * <p>
+ * Not modelled: page, click and JavaScript variables (they read as empty) and the
+ * trigger-group and timer trigger settings. Built-in trigger IDs other than All Pages,
+ * Initialization and Consent Initialization fire for every event.
+ */
+public final class Container {
+    private static final int MAX_CACHED_EVENT_NAMES = 1024;
+    private static final Map<String, String> TRIGGER_TYPE_EVENTS = Map.ofEntries(
+            Map.entry("PAGEVIEW", "gtm.js"),
+            Map.entry("DOM_READY", "gtm.dom"),
+            Map.entry("WINDOW_LOADED", "gtm.load"),
+            Map.entry("INIT", "gtm.init"),
+            Map.entry("CONSENT_INIT", "gtm.init_consent"),
+            Map.entry("CLICK", "gtm.click"),
+            Map.entry("LINK_CLICK", "gtm.linkClick"),
+            Map.entry("FORM_SUBMISSION", "gtm.formSubmit"),
+            Map.entry("HISTORY_CHANGE", "gtm.historyChange"),
+            Map.entry("JS_ERROR", "gtm.pageError"),
+            Map.entry("TIMER", "gtm.timer"),
+            Map.entry("SCROLL_DEPTH", "gtm.scrollDepth"),
+            Map.entry("ELEMENT_VISIBILITY", "gtm.elementVisibility"),
+            Map.entry("YOU_TUBE_VIDEO", "gtm.video"));
+
+    private final String publicId;
+    private final String versionId;
+    private final boolean server;
+    private final List<Tag> tags;
+    private final Tag[] tagArray;
+    private final List<Trigger> triggers;
+    private final Map<String, Trigger> triggersById;
+    private final int triggerCount;
+    private final Map<String, Variable> variablesByName;
+    private final Map<String, Variable> variablesById;
+    // Fired tags per event name, or null if some trigger reads more than the event name.
+    private final Map<String, List<Tag>> firedTagsByEventName;
+
+    private Container(String publicId, String versionId, boolean server, List<Tag> tags,
+                      List<Trigger> triggers, Map<String, Trigger> triggersById, int triggerCount,
+                      Map<String, Variable> variablesByName) {
+        this.publicId = publicId;
+        this.versionId = versionId;
+        this.server = server;
+        this.tags = Collections.unmodifiableList(tags);
+        this.tagArray = tags.toArray(new Tag[0]);
+        this.triggers = Collections.unmodifiableList(triggers);
+        this.triggersById = Collections.unmodifiableMap(triggersById);
+        this.triggerCount = triggerCount;
+        this.variablesByName = Collections.unmodifiableMap(variablesByName);
+        Map<String, Variable> variablesById = new HashMap<>();
+        for (Variable variable : variablesByName.values()) {
+            variablesById.put(variable.getId(), variable);
+        }
+        this.variablesById = Collections.unmodifiableMap(variablesById);
+        boolean readsEventNameOnly = true;
+        for (Tag tag : tags) {
+            readsEventNameOnly &= tag.readsEventNameOnly();
+        }
+        this.firedTagsByEventName = readsEventNameOnly ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Loads an exported container.
+     *
+     * @param path The path of the export JSON file.
+     * @return The container.
+     */
+    public static Container load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Parses an exported container.
+     *
+     * @param reader The export JSON.
+     * @return The container.
+     */
+    public static Container parse(Reader reader) {
+        JsonObject version = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonObject("containerVersion");
+        JsonObject container = version.getAsJsonObject("container");
+        boolean server = version.has("client");
+
+        Map<String, JsonObject> variableJson = new LinkedHashMap<>();
+        for (JsonElement element : array(version, "variable")) {
+            JsonObject variable = element.getAsJsonObject();
+            variableJson.put(string(variable, "name"), variable);
+        }
+        Map<String, ValueSource> builtIns = new HashMap<>();
+        builtIns.put("_event", ValueSource.EVENT_NAME);
+        for (JsonElement element : array(version, "builtInVariable")) {
+            JsonObject variable = element.getAsJsonObject();
+            String type = string(variable, "type");
+            builtIns.put(string(variable, "name"),
+                    type.equals("EVENT") || type.equals("EVENT_NAME") ? ValueSource.EVENT_NAME : ValueSource.UNSUPPORTED);
+        }
+        Compiler compiler = new Compiler(variableJson, builtIns);
+        Map<String, Variable> variables = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonObject> entry : variableJson.entrySet()) {
+            JsonObject variable = entry.getValue();
+            variables.put(entry.getKey(), new Variable(string(variable, "variableId"), entry.getKey(),
+                    string(variable, "type"), parameters(variable), compiler.variable(entry.getKey())));
+        }
+
+        List<Trigger> triggers = new ArrayList<>();
+        Map<String, Trigger> triggersById = new HashMap<>();
+        for (JsonElement element : array(version, "trigger")) {
+            JsonObject trigger = element.getAsJsonObject();
+            String type = string(trigger, "type");
+            List<Condition> conditions = new ArrayList<>();
+            for (String field : new String[] {"customEventFilter", "autoEventFilter", "filter"}) {
+                for (JsonElement filter : array(trigger, field)) {
+                    conditions.add(compiler.condition(filter.getAsJsonObject()));
+                }
+            }
+            String eventName = type.equals("CUSTOM_EVENT") || type.equals("ALWAYS") || type.equals("CUSTOM")
+                    ? null
+                    // Unsupported trigger types listen to an event that never happens.
+                    : TRIGGER_TYPE_EVENTS.getOrDefault(type, "\0" + type);
+            Trigger compiled = new Trigger(triggers.size(), string(trigger, "triggerId"), string(trigger, "name"),
+                    type, eventName, Collections.unmodifiableList(conditions), false);
+            triggers.add(compiled);
+            triggersById.put(compiled.getId(), compiled);
+        }
+
+        Map<String, Trigger> allTriggersById = new HashMap<>(triggersById);
+        List<Tag> tags = new ArrayList<>();
+        for (JsonElement element : array(version, "tag")) {
+            JsonObject tag = element.getAsJsonObject();
+            JsonElement paused = tag.get("paused");
+            tags.add(new Tag(tags.size(), string(tag, "tagId"), string(tag, "name"), string(tag, "type"),
+                    paused != null && paused.getAsBoolean(), parameters(tag),
+                    resolveTriggers(tag, "firingTriggerId", allTriggersById, server),
+                    resolveTriggers(tag, "blockingTriggerId", allTriggersById, server)));
+        }
+        return new Container(string(container, "publicId"), string(version, "containerVersionId"), server,
+                tags, triggers, triggersById, allTriggersById.size(), variables);
+    }
+
+    /**
+     * Resolves the trigger IDs of a tag, creating built-in triggers on first use. IDs
+     * that match no trigger are dropped.
+     */
+    private static Trigger[] resolveTriggers(JsonObject tag, String field, Map<String, Trigger> triggersById,
+                                             boolean server) {
+        List<Trigger> resolved = new ArrayList<>();
+        for (JsonElement element : array(tag, field)) {
+            String triggerId = element.getAsString();
+            Trigger trigger = triggersById.get(triggerId);
+            if (trigger == null && Trigger.isBuiltInId(triggerId)) {
+                trigger = builtInTrigger(triggersById.size(), triggerId, server);
+                triggersById.put(triggerId, trigger);
+            }
+            if (trigger != null) {
+                resolved.add(trigger);
+            }
+        }
+        return resolved.toArray(new Trigger[0]);
+    }
+
+    private static Trigger builtInTrigger(int index, String triggerId, boolean server) {
+        String name = "Built-in trigger " + triggerId;
+        String type = "BUILT_IN";
+        String eventName = null;
+        if (!server) {
+            switch (triggerId) {
+                case "2147479553":
+                    name = "All Pages";
+                    type = "PAGEVIEW";
+                    eventName = "gtm.js";
+                    break;
+                case "2147479572":
+                    name = "Consent Initialization - All Pages";
+                    type = "CONSENT_INIT";
+                    eventName = "gtm.init_consent";
+                    break;
+                case "2147479573":
+                    name = "Initialization - All Pages";
+                    type = "INIT";
+                    eventName = "gtm.init";
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new Trigger(index, triggerId, name, type, eventName, List.of(), true);
+    }
+
+    /**
+     * @return The public container ID, e.g. {@code GTM-XXXXXXX}.
+     */
+    public String getPublicId() {
+        return publicId;
+    }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    /**
+     * @return Whether this is a server container (it has clients).
+     */
+    public boolean isServer() {
+        return server;
+    }
+
+    /**
+     * @return The tags, in export order.
+     */
+    public List<Tag> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return The exported triggers, in export order; built-in triggers are reachable
+     * through the tags that use them.
+     */
+    public List<Trigger> getTriggers() {
+        return triggers;
+    }
+
+    /**
+     * @return The user-defined variables by name, in export order.
+     */
+    public Map<String, Variable> getVariables() {
+        return variablesByName;
+    }
+
+    /**
+     * @param triggerId An exported trigger ID.
+     * @return The trigger, or null.
+     */
+    public Trigger getTrigger(String triggerId) {
+        return triggersById.get(triggerId);
+    }
+
+    /**
+     * @param variableId A variable ID.
+     * @return The variable, or null.
+     */
+    public Variable getVariableById(String variableId) {
+        return variablesById.get(variableId);
+    }
+
+    /**
+     * @param name A variable name.
+     * @return The variable, or null.
+     */
+    public Variable getVariable(String name) {
+        return variablesByName.get(name);
+    }
+
+    /**
+     * @param eventName An event name.
+     * @return The tags that fire for an event that has only this name, in export order.
+     */
+    public List<Tag> tagsFor(String eventName) {
+        return tagsFor(ContainerEvent.named(eventName));
+    }
+
+    /**
+     * @param event An event.
+     * @return The tags that fire for the event, in export order. The list is immutable.
+     */
+    public List<Tag> tagsFor(ContainerEvent event) {
+        if (firedTagsByEventName == null) {
+            return evaluate(event);
+        }
+        String eventName = event.getEventName();
+        List<Tag> firedTags = firedTagsByEventName.get(eventName);
+        if (firedTags == null) {
+            firedTags = evaluate(event);
+            if (firedTagsByEventName.size() < MAX_CACHED_EVENT_NAMES) {
+                firedTagsByEventName.put(eventName, firedTags);
+            }
+        }
+        return firedTags;
+    }
+
+    /**
+     * Runs the compiled triggers for an event, evaluating each trigger at most once.
+     */
+    List<Tag> evaluate(ContainerEvent event) {
+        // 0 = not evaluated, 1 = doesn't fire, 2 = fires.
+        byte[] triggerStates = new byte[triggerCount];
+        List<Tag> firedTags = null;
+        for (Tag tag : tagArray) {
+            if (!tag.isPaused() && anyFires(tag.firingTriggers, event, triggerStates)
+                    && !anyFires(tag.blockingTriggers, event, triggerStates)) {
+                if (firedTags == null) {
+                    firedTags = new ArrayList<>(tagArray.length);
+                }
+                firedTags.add(tag);
+            }
+        }
+        return firedTags == null ? List.of() : Collections.unmodifiableList(firedTags);
+    }
+
+    private static boolean anyFires(Trigger[] triggers, ContainerEvent event, byte[] triggerStates) {
+        for (Trigger trigger : triggers) {
+            byte state = triggerStates[trigger.index];
+            if (state == 0) {
+                state = trigger.fires(event) ? (byte) 2 : (byte) 1;
+                triggerStates[trigger.index] = state;
+            }
+            if (state == 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compiles variables, templates and conditions, resolving variable references by name.
+     */
+    private static final class Compiler {
+        private final Map<String, JsonObject> variableJson;
+        private final Map<String, ValueSource> compiled;
+        private final Set<String> compiling = new HashSet<>();
+
+        Compiler(Map<String, JsonObject> variableJson, Map<String, ValueSource> builtIns) {
+            this.variableJson = variableJson;
+            this.compiled = new HashMap<>(builtIns);
+        }
+
+        Condition condition(JsonObject condition) {
+            Map<String, String> parameters = parameters(condition);
+            String left = parameters.getOrDefault("arg0", "");
+            String right = parameters.getOrDefault("arg1", "");
+            return new Condition(string(condition, "type"), left, right,
+                    "true".equals(parameters.get("negate")), "true".equals(parameters.get("ignore_case")),
+                    template(left), template(right));
+        }
+
+        ValueSource variable(String name) {
+            ValueSource source = compiled.get(name);
+            if (source != null) {
+                return source;
+            }
+            JsonObject variable = variableJson.get(name);
+            // Unknown variables and reference cycles read as empty.
+            if (variable == null || !compiling.add(name)) {
+                return ValueSource.UNSUPPORTED;
+            }
+            Map<String, String> parameters = parameters(variable);
+            switch (string(variable, "type")) {
+                case "c":
+                    source = template(parameters.getOrDefault("value", ""));
+                    break;
+                case "v":
+                    String key = parameters.getOrDefault("name", "");
+                    source = event -> orEmpty(event.getDataLayerValue(key));
+                    break;
+                case "qp":
+                    String queryParamName = parameters.getOrDefault("queryParamName", "");
+                    source = event -> orEmpty(event.getQueryParameter(queryParamName));
+                    break;
+                case "rh":
+                    String headerName = parameters.getOrDefault("headerName", "");
+                    source = event -> orEmpty(event.getRequestHeader(headerName));
+                    break;
+                default:
+                    source = ValueSource.UNSUPPORTED;
+                    break;
+            }
+            compiling.remove(name);
+            compiled.put(name, source);
+            return source;
+        }
+
+        /**
+         * Compiles text with {@code {{Variable}}} references. A lone reference compiles to the
+         * variable itself and text without references to a constant.
+         */
+        ValueSource template(String text) {
+            List<ValueSource> parts = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int start = 0;
+            while (start < text.length()) {
+                int open = text.indexOf("{{", start);
+                int close = open < 0 ? -1 : text.indexOf("}}", open + 2);
+                if (close < 0) {
+                    literal.append(text, start, text.length());
+                    break;
+                }
+                literal.append(text, start, open);
+                if (literal.length() > 0) {
+                    parts.add(ValueSource.constant(literal.toString()));
+                    literal.setLength(0);
+                }
+                parts.add(variable(text.substring(open + 2, close)));
+                start = close + 2;
+            }
+            if (literal.length() > 0) {
+                parts.add(ValueSource.constant(literal.toString()));
+            }
+            if (parts.isEmpty()) {
+                return ValueSource.EMPTY;
+            }
+            if (parts.size() == 1) {
+                return parts.get(0);
+            }
+            ValueSource[] partArray = parts.toArray(new ValueSource[0]);
+            boolean readsEventNameOnly = true;
+            for (ValueSource part : partArray) {
+                readsEventNameOnly &= part.readsEventNameOnly();
+            }
+            boolean eventNameOnly = readsEventNameOnly;
+            return new ValueSource() {
+                @Override
+                public String resolve(ContainerEvent event) {
+                    StringBuilder value = new StringBuilder();
+                    for (ValueSource part : partArray) {
+                        value.append(part.resolve(event));
+                    }
+                    return value.toString();
+                }
+
+                @Override
+                public boolean readsEventNameOnly() {
+                    return eventNameOnly;
+                }
+            };
+        }
+
+        private static String orEmpty(String value) {
+            return value == null ? "" : value;
+        }
+    }
+
+    private static Iterable<JsonElement> array(JsonObject object, String name) {
+        JsonElement element = object == null ? null : object.get(name);
+        return element != null && element.isJsonArray() ? element.getAsJsonArray() : new JsonArray();
+    }
+
+    private static String string(JsonObject object, String name) {
+        JsonElement element = object == null ? null : object.get(name);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : "";
+    }
+
+    private static Map<String, String> parameters(JsonObject object) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        for (JsonElement element : array(object, "parameter")) {
+            JsonObject parameter = element.getAsJsonObject();
+            if (parameter.has("value")) {
+                parameters.put(string(parameter, "key"), string(parameter, "value"));
+            }
+        }
+        return Collections.unmodifiableMap(parameters);
+    }
+}
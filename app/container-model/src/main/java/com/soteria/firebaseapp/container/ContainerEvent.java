@@ -0,0 +1,62 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.container;
+
+/**
+ * An event evaluated against a container: a data layer push for a web container, or an
+ * event extracted from an incoming request for a server container. Sources that don't
+ * apply to the event return null.
+ */
+public interface ContainerEvent {
+    /**
+     * @return The event name, e.g. {@code purchase} or {@code gtm.js}.
+     */
+    String getEventName();
+
+    /**
+     * @param key The data layer key, e.g. {@code ecommerce.transaction_id}.
+     * @return The value, or null if the event doesn't have it.
+     */
+    default String getDataLayerValue(String key) {
+        return null;
+    }
+
+    /**
+     * @param name The query parameter name, e.g. {@code ep.transaction_id}.
+     * @return The value, or null if the event doesn't have it.
+     */
+    default String getQueryParameter(String name) {
+        return null;
+    }
+
+    /**
+     * @param name The request header name, in any case.
+     * @return The value, or null if the event doesn't have it.
+     */
+    default String getRequestHeader(String name) {
+        return null;
+    }
+
+    /**
+     * Creates an event that has only a name.
+     *
+     * @param eventName The event name.
+     * @return The event.
+     */
+    static ContainerEvent named(String eventName) {
+        return () -> eventName;
+    }
+}
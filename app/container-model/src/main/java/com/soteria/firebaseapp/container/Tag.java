@@ -0,0 +1,96 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.container;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A tag of a container with its firing and blocking triggers resolved.
+ */
+public final class Tag {
+    private final String id;
+    private final String name;
+    private final String type;
+    private final boolean paused;
+    private final Map<String, String> parameters;
+    final Trigger[] firingTriggers;
+    final Trigger[] blockingTriggers;
+    final int index;
+
+    Tag(int index, String id, String name, String type, boolean paused, Map<String, String> parameters,
+        Trigger[] firingTriggers, Trigger[] blockingTriggers) {
+        this.index = index;
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.paused = paused;
+        this.parameters = parameters;
+        this.firingTriggers = firingTriggers;
+        this.blockingTriggers = blockingTriggers;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The tag type, e.g. {@code gaawe} or {@code sgtmgaaw}.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return Whether the tag is paused; paused tags never fire.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * @return The top-level parameters by key; list and map parameters are left out.
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    public List<Trigger> getFiringTriggers() {
+        return List.of(firingTriggers);
+    }
+
+    public List<Trigger> getBlockingTriggers() {
+        return List.of(blockingTriggers);
+    }
+
+    boolean readsEventNameOnly() {
+        for (Trigger trigger : firingTriggers) {
+            if (!trigger.readsEventNameOnly) {
+                return false;
+            }
+        }
+        for (Trigger trigger : blockingTriggers) {
+            if (!trigger.readsEventNameOnly) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.container;
+
+import java.util.List;
+
+/**
+ * A trigger of a container with its conditions compiled. Built-in triggers (such as
+ * All Pages) aren't part of an export; they're created from their well-known IDs.
+ */
+public final class Trigger {
+    // Built-in triggers have IDs from this value on.
+    static final long FIRST_BUILT_IN_ID = 2147479553L;
+
+    private final String id;
+    private final String name;
+    private final String type;
+    private final List<Condition> conditions;
+    private final boolean builtIn;
+    // The event the trigger type listens to, or null if it listens to every event.
+    private final String eventName;
+    final boolean readsEventNameOnly;
+    final int index;
+
+    Trigger(int index, String id, String name, String type, String eventName, List<Condition> conditions,
+            boolean builtIn) {
+        this.index = index;
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.eventName = eventName;
+        this.conditions = conditions;
+        this.builtIn = builtIn;
+        boolean readsEventNameOnly = true;
+        for (Condition condition : conditions) {
+            readsEventNameOnly &= condition.readsEventNameOnly;
+        }
+        this.readsEventNameOnly = readsEventNameOnly;
+    }
+
+    /**
+     * @param triggerId A trigger ID.
+     * @return Whether the ID is in the range of built-in triggers.
+     */
+    static boolean isBuiltInId(String triggerId) {
+        try {
+            return Long.parseLong(triggerId) >= FIRST_BUILT_IN_ID;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The trigger type, e.g. {@code CUSTOM_EVENT} or {@code PAGEVIEW}.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return The conditions, all of which must hold for the trigger to fire.
+     */
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    public boolean isBuiltIn() {
+        return builtIn;
+    }
+
+    /**
+     * @param event The event.
+     * @return Whether the trigger fires for the event.
+     */
+    public boolean fires(ContainerEvent event) {
+        if (eventName != null && !eventName.equals(event.getEventName())) {
+            return false;
+        }
+        for (int i = 0, size = conditions.size(); i < size; i++) {
+            if (!conditions.get(i).predicate.test(event)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
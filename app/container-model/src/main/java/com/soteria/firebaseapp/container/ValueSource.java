@@ -0,0 +1,78 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.container;
+
+/**
+ * Reads a value for an event: a variable, a template or a constant compiled when the
+ * container is loaded, so evaluating it doesn't look anything up by name.
+ */
+@FunctionalInterface
+interface ValueSource {
+    ValueSource EMPTY = constant("");
+    ValueSource EVENT_NAME = eventName();
+    // Sources this model can't read (e.g. page URL or JavaScript variables) read as empty,
+    // but never count as constant.
+    ValueSource UNSUPPORTED = event -> "";
+
+    /**
+     * @param event The event.
+     * @return The value, never null.
+     */
+    String resolve(ContainerEvent event);
+
+    /**
+     * @return The value if it doesn't depend on the event, otherwise null.
+     */
+    default String constantValue() {
+        return null;
+    }
+
+    /**
+     * @return Whether the value depends on nothing but the event name.
+     */
+    default boolean readsEventNameOnly() {
+        return constantValue() != null;
+    }
+
+    static ValueSource constant(String value) {
+        return new ValueSource() {
+            @Override
+            public String resolve(ContainerEvent event) {
+                return value;
+            }
+
+            @Override
+            public String constantValue() {
+                return value;
+            }
+        };
+    }
+
+    private static ValueSource eventName() {
+        return new ValueSource() {
+            @Override
+            public String resolve(ContainerEvent event) {
+                String eventName = event.getEventName();
+                return eventName == null ? "" : eventName;
+            }
+
+            @Override
+            public boolean readsEventNameOnly() {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.container;
+
+import java.util.Map;
+
+/**
+ * A user-defined variable of a container. Its value is compiled when the container is
+ * loaded: references to other variables are already resolved.
+ */
+public final class Variable {
+    private final String id;
+    private final String name;
+    private final String type;
+    private final Map<String, String> parameters;
+    final ValueSource source;
+
+    Variable(String id, String name, String type, Map<String, String> parameters, ValueSource source) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.parameters = parameters;
+        this.source = source;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The variable type, e.g. {@code v} (data layer), {@code c} (constant),
+     * {@code qp} (query parameter) or {@code rh} (request header).
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return The top-level parameters by key; list and map parameters are left out.
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @param event The event.
+     * @return The value of the variable for the event, empty if it can't be read.
+     */
+    public String resolve(ContainerEvent event) {
+        return source.resolve(event);
+    }
+}
@@ -21,3 +21,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "GTM Boilerplate Android"
 include(":app")
+include(":benchmarks")
+include(":container-lint")
+include(":container-model")
+include(":sgtm-standin")
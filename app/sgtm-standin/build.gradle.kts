@@ -0,0 +1,21 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+application {
+    mainClass.set("com.soteria.firebaseapp.sgtm.StandInServer")
+}
+
+tasks.named<JavaExec>("run") {
+    // Serve the exported server container of this repository by default.
+    args(rootProject.file("../google_tag_manager_web/src/server-container.json").path)
+}
+
+dependencies {
+    implementation(project(":container-model"))
+}
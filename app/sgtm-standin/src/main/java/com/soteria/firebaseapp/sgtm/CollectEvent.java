@@ -0,0 +1,162 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.sgtm;
+
+import com.soteria.firebaseapp.container.ContainerEvent;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One event of a GA4 {@code /g/collect} request, extracted the way the GA4 client
+ * does: the query string holds the parameters shared by all events, and each line of
+ * the body is one event whose parameters override the shared ones.
+ */
+public class CollectEvent implements ContainerEvent {
+    private final Map<String, String> parameters;
+    private final Map<String, String> headers;
+
+    private CollectEvent(Map<String, String> parameters, Map<String, String> headers) {
+        this.parameters = parameters;
+        this.headers = headers;
+    }
+
+    /**
+     * Extracts the events of a request.
+     *
+     * @param rawQuery The raw query string, may be null.
+     * @param body The decoded request body, empty for GET requests.
+     * @param headers The request headers, keyed by lower-case name.
+     * @return The events; a request without a body is a single event.
+     * @throws IllegalArgumentException If a parameter has a malformed %-escape.
+     */
+    public static List<CollectEvent> parse(String rawQuery, String body, Map<String, String> headers) {
+        Map<String, String> shared = new HashMap<>();
+        decode(rawQuery, shared);
+        Map<String, String> sharedHeaders = Collections.unmodifiableMap(headers);
+        List<CollectEvent> events = new ArrayList<>();
+        int start = 0;
+        while (start < body.length()) {
+            int end = body.indexOf('\n', start);
+            if (end < 0) {
+                end = body.length();
+            }
+            if (end > start) {
+                Map<String, String> parameters = new HashMap<>(shared);
+                decode(body.substring(start, end), parameters);
+                events.add(new CollectEvent(parameters, sharedHeaders));
+            }
+            start = end + 1;
+        }
+        if (events.isEmpty()) {
+            events.add(new CollectEvent(shared, sharedHeaders));
+        }
+        return events;
+    }
+
+    private static void decode(String query, Map<String, String> parameters) {
+        if (query == null) {
+            return;
+        }
+        int start = 0;
+        while (start < query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            int equals = query.indexOf('=', start);
+            if (equals > start && equals < end) {
+                parameters.put(URLDecoder.decode(query.substring(start, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(query.substring(equals + 1, end), StandardCharsets.UTF_8));
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * @param name The query parameter name, e.g. {@code cid} or {@code ep.transaction_id}.
+     * @return The value, or null if the event doesn't have the parameter.
+     */
+    public String getParameter(String name) {
+        return parameters.get(name);
+    }
+
+    /**
+     * @param name The header name, in any case.
+     * @return The value, or null if the request doesn't have the header.
+     */
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public String getQueryParameter(String name) {
+        return getParameter(name);
+    }
+
+    @Override
+    public String getRequestHeader(String name) {
+        return getHeader(name);
+    }
+
+    /**
+     * @return The event name ({@code en}), empty if missing.
+     */
+    @Override
+    public String getEventName() {
+        String eventName = parameters.get("en");
+        return eventName == null ? "" : eventName;
+    }
+
+    /**
+     * @return The client ID ({@code cid}).
+     */
+    public String getClientId() {
+        return parameters.get("cid");
+    }
+
+    /**
+     * @return The session ID ({@code sid}).
+     */
+    public String getSessionId() {
+        return parameters.get("sid");
+    }
+
+    /**
+     * @return The currency ({@code cu}).
+     */
+    public String getCurrency() {
+        return parameters.get("cu");
+    }
+
+    /**
+     * @return The engagement time ({@code _et}) in milliseconds, 0 if missing or invalid.
+     */
+    public long getEngagementTimeMillis() {
+        String value = parameters.get("_et");
+        try {
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
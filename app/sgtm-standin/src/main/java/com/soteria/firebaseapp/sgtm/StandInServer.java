@@ -0,0 +1,214 @@
+/**
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.soteria.firebaseapp.sgtm;
+
+import com.soteria.firebaseapp.container.Container;
+import com.soteria.firebaseapp.container.Tag;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A local stand-in for the server-side GTM container, for replaying app traffic and
+ * sizing the tagging fleet. It accepts GA4 {@code /g/collect} requests, extracts their
+ * events like the GA4 client, evaluates the container's triggers and counts which tags
+ * would fire. Nothing is forwarded anywhere.
+ * <p>
+ * Requests/sec, events/sec and p50/p99 latency are printed every reporting interval,
+ * and the totals are served as JSON on {@code /stats}.
+ * <p>
+ * Usage: {@code StandInServer <server-container.json> [port] [report interval seconds]}
+ */
+public class StandInServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_REPORT_INTERVAL_SECONDS = 10;
+
+    private final Container container;
+    private final LatencyRecorder intervalLatencies = new LatencyRecorder();
+    private final LongAdder intervalRequests = new LongAdder();
+    private final LongAdder intervalEvents = new LongAdder();
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder totalEvents = new LongAdder();
+    private final LongAdder badRequests = new LongAdder();
+    // Fire counts per tag; the keys are fixed when the container is loaded.
+    private final Map<Tag, LongAdder> tagFires = new LinkedHashMap<>();
+
+    /**
+     * Creates a stand-in for a container.
+     *
+     * @param container The container to evaluate requests against.
+     */
+    public StandInServer(Container container) {
+        this.container = container;
+        for (Tag tag : container.getTags()) {
+            tagFires.put(tag, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: StandInServer <server-container.json> [port] [report interval seconds]");
+            System.exit(2);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        int reportIntervalSeconds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_REPORT_INTERVAL_SECONDS;
+
+        long loadStart = System.nanoTime();
+        Container container = Container.load(Path.of(args[0]));
+        System.out.printf(Locale.ROOT, "Loaded %d tags from %s in %.1f ms%n", container.getTags().size(),
+                args[0], (System.nanoTime() - loadStart) / 1e6);
+
+        StandInServer standIn = new StandInServer(container);
+        HttpServer server = standIn.start(port);
+        System.out.println("Listening on http://localhost:" + server.getAddress().getPort() + "/g/collect");
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> standIn.report(reportIntervalSeconds),
+                reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts serving.
+     *
+     * @param port The port to listen on, 0 for any free port.
+     * @return The running server.
+     */
+    public HttpServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/g/collect", this::handleCollect);
+        server.createContext("/stats", this::handleStats);
+        server.setExecutor(newRequestExecutor());
+        server.start();
+        return server;
+    }
+
+    /**
+     * Runs each request on its own virtual thread when the JVM supports them (Java 21+),
+     * otherwise on a fixed pool of platform threads.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+
+    private void handleCollect(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("POST") && !method.equals("GET")) {
+                badRequests.increment();
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            InputStream input = exchange.getRequestBody();
+            if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                input = new GZIPInputStream(input);
+            }
+            String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+
+            Map<String, String> headers = new HashMap<>();
+            exchange.getRequestHeaders().forEach((name, values) ->
+                    headers.put(name.toLowerCase(Locale.ROOT), values.isEmpty() ? "" : values.get(0)));
+
+            List<CollectEvent> events;
+            try {
+                events = CollectEvent.parse(exchange.getRequestURI().getRawQuery(), body, headers);
+            } catch (IllegalArgumentException e) {
+                // A malformed %-escape; the GA4 client would reject the request too.
+                badRequests.increment();
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            for (CollectEvent event : events) {
+                for (Tag tag : container.tagsFor(event)) {
+                    tagFires.get(tag).increment();
+                }
+            }
+            intervalEvents.add(events.size());
+            totalEvents.add(events.size());
+            exchange.sendResponseHeaders(204, -1);
+        } catch (IOException e) {
+            badRequests.increment();
+            throw e;
+        } finally {
+            intervalRequests.increment();
+            totalRequests.increment();
+            intervalLatencies.record((System.nanoTime() - start) / 1000);
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StringBuilder json = new StringBuilder();
+            json.append("{\"requests\":").append(totalRequests.sum())
+                    .append(",\"events\":").append(totalEvents.sum())
+                    .append(",\"badRequests\":").append(badRequests.sum())
+                    .append(",\"tagFires\":{");
+            boolean first = true;
+            for (Map.Entry<Tag, LongAdder> entry : tagFires.entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append('"').append(entry.getKey().getName().replace("\\", "\\\\").replace("\"", "\\\""))
+                        .append("\":").append(entry.getValue().sum());
+            }
+            json.append("}}");
+            byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    /**
+     * Prints the throughput and latency of the last interval and the tag fire totals.
+     *
+     * @param intervalSeconds The length of the interval.
+     */
+    private void report(int intervalSeconds) {
+        long[] latencies = intervalLatencies.drain();
+        long requests = intervalRequests.sumThenReset();
+        long events = intervalEvents.sumThenReset();
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.ROOT, "%.1f req/s, %.1f events/s, p50 %d us, p99 %d us",
+                requests / (double) intervalSeconds, events / (double) intervalSeconds,
+                LatencyRecorder.percentile(latencies, 50), LatencyRecorder.percentile(latencies, 99)));
+        for (Map.Entry<Tag, LongAdder> entry : tagFires.entrySet()) {
+            line.append(" | ").append(entry.getKey().getName()).append(": ").append(entry.getValue().sum());
+        }
+        System.out.println(line);
+    }
+}